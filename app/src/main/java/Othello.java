@@ -0,0 +1,748 @@
+import javax.swing.*;
+import javax.swing.Timer;
+import java.awt.*;
+import java.awt.event.*;
+import java.awt.geom.*;
+import java.awt.image.BufferedImage;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.nio.file.Paths;
+
+import othello.engine.AIPlayer;
+import othello.engine.EngineExecutor;
+import othello.engine.MctsPlayer;
+import othello.engine.OpeningBook;
+import othello.engine.PatternEvaluator;
+import othello.engine.ProbCut;
+import othello.engine.Warmup;
+import othello.engine.WideBitboard;
+import othello.engine.WideGame;
+import othello.engine.WidePlayer;
+
+public class Othello extends JFrame {
+
+    // Các cỡ bàn cờ chọn được ở menu; 8x8 dùng AI đầy đủ (sách, bảng mẫu, giải tàn cuộc)
+    public static final int[] SIZES = {6, 8, 10, 12};
+    public static final int EMPTY = 0;
+    public static final int BLACK = 1;
+    public static final int WHITE = 2;
+    // Cho AI suy nghĩ trong thời gian của người chơi (-Dothello.ponder=false để tắt)
+    static final boolean PONDER = !"false".equals(System.getProperty("othello.ponder"));
+    // Chạy thử AI ở luồng nền lúc mở để JIT biên dịch trước nước đi đầu tiên (-Dothello.warmup=false để tắt)
+    static final boolean WARMUP = !"false".equals(System.getProperty("othello.warmup"));
+    // In thời gian tới khung hình đầu tiên và nước đi đầu tiên của AI ra stderr (-Dothello.timing=true)
+    static final boolean TIMING = Boolean.getBoolean("othello.timing");
+
+    private CardLayout layout;
+    private JPanel mainPanel;
+    private Board boardPanel; // Chỉ tạo khi cần lần đầu, menu hiện ra ngay
+    private Menu menuPanel;
+
+    // AI và các bảng của nó được nạp ở luồng nền, song song với lúc menu hiện ra
+    private final CompletableFuture<AIPlayer> engineReady = new CompletableFuture<>();
+    private volatile Warmup warmup;
+
+    public Othello() {
+        setTitle("Othello"); // Đã sửa từ "Othello Modern AI" thành "Othello"
+        setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
+        setResizable(true);
+
+        layout = new CardLayout();
+        mainPanel = new JPanel(layout);
+
+        menuPanel = new Menu(this);
+        mainPanel.add(menuPanel, "MENU");
+
+        add(mainPanel);
+        mainPanel.setPreferredSize(new Dimension(600, 700));
+        pack();
+        setLocationRelativeTo(null);
+
+        Thread loader = new Thread(this::loadEngine, "othello-load");
+        loader.setDaemon(true);
+        loader.setPriority(Thread.MIN_PRIORITY);
+        loader.start();
+    }
+
+    // Luồng nền: tạo AI, nạp sách/bảng mẫu/ProbCut, rồi chạy thử AI cho tới khi hết giờ hoặc có nước đi thật
+    private void loadEngine() {
+        try {
+            AIPlayer ai = new AIPlayer();
+            // Sách khai cuộc (nếu có) được map vào bộ nhớ, mở gần như không tốn thời gian
+            ai.book = OpeningBook.openIfExists(Paths.get(System.getProperty("othello.book", "othello.book")));
+            // Bảng mẫu đã huấn luyện (nếu có) thay cho hàm đánh giá cổ điển
+            ai.patterns = PatternEvaluator.openIfExists(Paths.get(System.getProperty("othello.eval", "othello.eval")));
+            // Bảng ProbCut (nếu có) cho phép cắt tỉa chọn lọc, tìm sâu hơn trong cùng thời gian
+            ai.probCut = ProbCut.openIfExists(Paths.get(System.getProperty("othello.mpc", "othello.mpc")));
+            if (WARMUP) warmup = new Warmup(ai.patterns, ai.probCut, Warmup.DEFAULT_BUDGET_MS);
+            engineReady.complete(ai);
+        } catch (RuntimeException | Error e) {
+            engineReady.completeExceptionally(e);
+            return;
+        }
+        Warmup w = warmup;
+        if (w == null) return;
+        w.run();
+        if (TIMING) System.err.println(w);
+    }
+
+    // Dừng chạy thử ngay khi AI cần CPU cho nước đi thật
+    void stopWarmup() {
+        Warmup w = warmup;
+        if (w != null) w.cancel();
+    }
+
+    // Bàn cờ được tạo ở lần đầu cần tới (bấm CHƠI hoặc đổi AI/cỡ bàn)
+    Board board() {
+        if (boardPanel == null) {
+            boardPanel = new Board(this);
+            mainPanel.add(boardPanel, "GAME");
+        }
+        return boardPanel;
+    }
+
+    public void startGame() {
+        board().resetGame();
+        layout.show(mainPanel, "GAME");
+    }
+
+    public void showMenu() {
+        if (boardPanel != null) boardPanel.cancelAI(); // Không để AI chạy ngầm khi đang ở menu
+        layout.show(mainPanel, "MENU");
+    }
+
+    // Mốc thời gian tính từ lúc tiến trình khởi động (khi hệ điều hành cho biết), dùng cho TIMING
+    static long sinceLaunchMs() {
+        long now = System.currentTimeMillis();
+        return ProcessHandle.current().info().startInstant().map(t -> now - t.toEpochMilli()).orElse(-1L);
+    }
+
+    public static void main(String[] args) {
+        System.setProperty("awt.useSystemAAFontSettings", "on");
+        System.setProperty("swing.aatext", "true");
+        SwingUtilities.invokeLater(() -> {
+            new Othello().setVisible(true);
+        });
+    }
+
+    // Modern Button
+    static class Btn extends JButton {
+        private Color normal = new Color(50, 50, 50);
+        private Color hover = new Color(80, 80, 80);
+        private Color press = new Color(30, 30, 30);
+
+        public Btn(String text) {
+            super(text);
+            setContentAreaFilled(false);
+            setFocusPainted(false);
+            setBorderPainted(false);
+            setForeground(Color.WHITE);
+            setFont(new Font("Segoe UI", Font.BOLD, 16));
+            setCursor(new Cursor(Cursor.HAND_CURSOR));
+            addMouseListener(new MouseAdapter() {
+                @Override public void mouseEntered(MouseEvent e) { setBackground(hover); }
+                @Override public void mouseExited(MouseEvent e) { setBackground(normal); }
+                @Override public void mousePressed(MouseEvent e) { setBackground(press); }
+                @Override public void mouseReleased(MouseEvent e) { setBackground(hover); }
+            });
+            setBackground(normal);
+        }
+        @Override
+        protected void paintComponent(Graphics g) {
+            Graphics2D g2 = (Graphics2D) g.create();
+            g2.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+            g2.setColor(getBackground());
+            g2.fillRoundRect(0, 0, getWidth(), getHeight(), 20, 20);
+            g2.setColor(isEnabled() ? getForeground() : Color.GRAY);
+            FontMetrics fm = g2.getFontMetrics();
+            int x = (getWidth() - fm.stringWidth(getText())) / 2;
+            int y = (getHeight() + fm.getAscent()) / 2 - 2;
+            g2.drawString(getText(), x, y);
+            g2.dispose();
+        }
+    }
+
+    // Menu Panel
+    class Menu extends JPanel {
+        public Menu(Othello frame) {
+            setLayout(new GridBagLayout());
+            JLabel title = new JLabel("OTHELLO");
+            title.setFont(new Font("Segoe UI", Font.BOLD, 60));
+            title.setForeground(Color.WHITE);
+
+            JLabel subtitle = new JLabel("Minimax Alpha-Beta AI");
+            subtitle.setFont(new Font("Segoe UI", Font.PLAIN, 18));
+            subtitle.setForeground(new Color(200, 200, 200));
+
+            // Chọn thuật toán cho AI: Minimax hoặc Monte Carlo Tree Search
+            Btn btnEngine = new Btn("AI: MINIMAX");
+            btnEngine.setPreferredSize(new Dimension(200, 50));
+            btnEngine.addActionListener(e -> {
+                boolean mcts = frame.board().toggleEngine();
+                btnEngine.setText(mcts ? "AI: MCTS" : "AI: MINIMAX");
+                subtitle.setText(mcts ? "Monte Carlo Tree Search AI" : "Minimax Alpha-Beta AI");
+            });
+
+            // --- SỬA TẠI ĐÂY ---
+            Btn btnStart = new Btn("CHƠI"); // Đã sửa từ "CHƠI VỚI AI"
+            btnStart.setPreferredSize(new Dimension(200, 50));
+            btnStart.addActionListener(e -> frame.startGame());
+            // -------------------
+
+            // Chọn cỡ bàn cờ: 6x6, 8x8, 10x10, 12x12
+            Btn btnSize = new Btn("BÀN: 8x8");
+            btnSize.setPreferredSize(new Dimension(200, 50));
+            btnSize.addActionListener(e -> {
+                int n = frame.board().nextBoardSize();
+                btnSize.setText("BÀN: " + n + "x" + n);
+            });
+
+            Btn btnExit = new Btn("THOÁT");
+            btnExit.setPreferredSize(new Dimension(200, 50));
+            btnExit.addActionListener(e -> System.exit(0));
+
+            // Các nút cần tới bàn cờ chỉ bật khi AI đã nạp xong, để luồng giao diện không phải chờ
+            Btn[] needEngine = {btnStart, btnEngine, btnSize};
+            for (Btn b : needEngine) b.setEnabled(false);
+            frame.engineReady.whenComplete((ai, err) -> SwingUtilities.invokeLater(() -> {
+                if (err != null) {
+                    subtitle.setText("Không nạp được AI: " + err);
+                    return;
+                }
+                for (Btn b : needEngine) b.setEnabled(true);
+            }));
+
+            GridBagConstraints gbc = new GridBagConstraints();
+            gbc.insets = new Insets(10, 0, 10, 0);
+            gbc.gridx = 0;
+            gbc.gridy = 0; add(title, gbc);
+            gbc.gridy = 1; add(subtitle, gbc);
+            gbc.insets = new Insets(40, 0, 10, 0);
+            gbc.gridy = 2; add(btnStart, gbc);
+            gbc.insets = new Insets(10, 0, 10, 0);
+            gbc.gridy = 3; add(btnEngine, gbc);
+            gbc.gridy = 4; add(btnSize, gbc);
+            gbc.gridy = 5; add(btnExit, gbc);
+        }
+        private boolean painted;
+
+        @Override
+        protected void paintComponent(Graphics g) {
+            if (TIMING && !painted) {
+                painted = true;
+                System.err.println("first frame: " + sinceLaunchMs() + " ms after launch");
+            }
+            Graphics2D g2 = (Graphics2D) g;
+            GradientPaint gp = new GradientPaint(0, 0, new Color(20, 20, 20), getWidth(), getHeight(), new Color(40, 44, 52));
+            g2.setPaint(gp);
+            g2.fillRect(0, 0, getWidth(), getHeight());
+        }
+    }
+
+    // Board Panel
+    // ==========================================
+    // CLASS: GAME PANEL (Đã sửa lỗi AI đứng im)
+    // ==========================================
+    class Board extends JPanel implements MouseListener {
+        private static final Color BACKGROUND = new Color(40, 40, 40);
+        private static final Color FELT = new Color(30, 100, 60);
+        private static final Color GRID = new Color(20, 70, 40);
+        private static final Color MOVE_DOT = new Color(0, 0, 0, 40);
+        private static final Color SCORE_TEXT = new Color(230, 230, 230), BEST_TEXT = new Color(255, 215, 0);
+        private static final Color BLACK_FILL = new Color(20, 20, 20), BLACK_RIM = new Color(60, 60, 60);
+        private static final Color WHITE_FILL = new Color(240, 240, 240), WHITE_RIM = new Color(200, 200, 200);
+        private static final BasicStroke GRID_STROKE = new BasicStroke(2);
+
+        private Othello frame;
+        private int size = 8;
+        private WideGame game;
+        private boolean isGameOver;
+        private AIPlayer ai;
+        private EngineExecutor engine; // Mọi việc của AI chạy trên một luồng duy nhất
+        private EngineExecutor minimax, mcts; // mcts chỉ được tạo khi người chơi chọn lần đầu
+        private boolean isAIThinking = false;
+        private long aiTurnStart; // TIMING: 0 = chưa tới lượt AI đầu tiên, -1 = đã ghi
+
+        // Bàn khác 8x8: AI riêng chạy trên luồng riêng; kết quả của lượt cũ (sau reset) bị bỏ qua
+        private WidePlayer wide;
+        private volatile long wideGen;
+        private final ExecutorService wideThread = Executors.newSingleThreadExecutor(r -> {
+            Thread t = new Thread(r, "othello-wide");
+            t.setDaemon(true);
+            return t;
+        });
+
+        // UI Components
+        private JPanel headerPanel;
+        private JLabel scoreBlack, scoreWhite;
+        private JLabel statsLabel; // Thống kê tìm kiếm của AI, bật/tắt bằng F3
+
+        // Chế độ phân tích (F4): điểm của mọi nước đi hợp lệ, sâu dần trong lúc người chơi suy nghĩ
+        private boolean analysisMode = false;
+        private EngineExecutor.Analysis analysis;
+        private Font scoreFont;
+        private Btn btnBack;
+
+        // Animation: chỉ chạy khi có quân đang lật, dừng hẳn khi rảnh
+        private Anim[] animAt = new Anim[0];
+        private int animCount = 0;
+        private Timer animTimer;
+
+        // Bộ đệm hình: nền bàn cờ tĩnh và quân cờ, vẽ lại khi đổi kích thước
+        private JPanel boardView;
+        private int cellSize, xOffset, yOffset, cachedW = -1, cachedH = -1;
+        private BufferedImage boardImage;
+        private BufferedImage[] discImage = new BufferedImage[3];
+
+        public Board(Othello frame) {
+            this.frame = frame;
+            this.ai = frame.engineReady.join(); // Đã nạp xong: menu chỉ bật các nút tạo bàn cờ sau đó
+            this.minimax = new EngineExecutor(ai, SwingUtilities::invokeLater);
+            this.engine = minimax;
+            setLayout(new BorderLayout());
+
+            // --- HEADER ---
+            headerPanel = new JPanel(new BorderLayout());
+            headerPanel.setBackground(new Color(30, 30, 30));
+            headerPanel.setBorder(BorderFactory.createEmptyBorder(10, 20, 10, 20));
+
+            JPanel scorePanel = new JPanel(new FlowLayout(FlowLayout.CENTER, 30, 0));
+            scorePanel.setOpaque(false);
+
+            scoreBlack = new JLabel("YOU: 2");
+            scoreBlack.setFont(new Font("Segoe UI", Font.BOLD, 18));
+            scoreBlack.setForeground(Color.WHITE);
+            
+            scoreWhite = new JLabel("AI: 2");
+            scoreWhite.setFont(new Font("Segoe UI", Font.BOLD, 18));
+            scoreWhite.setForeground(Color.GRAY);
+
+            scorePanel.add(scoreBlack);
+            scorePanel.add(scoreWhite);
+
+            btnBack = new Btn("MENU");
+            btnBack.setPreferredSize(new Dimension(80, 30));
+            btnBack.setFont(new Font("Segoe UI", Font.BOLD, 12));
+            btnBack.addActionListener(e -> frame.showMenu());
+
+            headerPanel.add(btnBack, BorderLayout.WEST);
+            headerPanel.add(scorePanel, BorderLayout.CENTER);
+            // --- THAY ĐỔI: Thêm nút RESET vào bên phải (Không hỏi xác nhận) ---
+            Btn btnRestart = new Btn("RESET");
+            btnRestart.setPreferredSize(new Dimension(80, 30));
+            btnRestart.setFont(new Font("Segoe UI", Font.BOLD, 12));
+            // Bấm là reset ngay lập tức
+            btnRestart.addActionListener(e -> resetGame());
+
+            headerPanel.add(btnRestart, BorderLayout.EAST);
+            // -----------------------------------------------------------------
+
+            // Lớp thống kê (ẩn mặc định): độ sâu, số nút, tốc độ, tỉ lệ TT và cắt tỉa
+            statsLabel = new JLabel(" ");
+            statsLabel.setFont(new Font(Font.MONOSPACED, Font.PLAIN, 11));
+            statsLabel.setForeground(new Color(150, 200, 150));
+            statsLabel.setHorizontalAlignment(SwingConstants.CENTER);
+            statsLabel.setBorder(BorderFactory.createEmptyBorder(6, 0, 0, 0));
+            statsLabel.setVisible(ai.collectStats);
+            headerPanel.add(statsLabel, BorderLayout.SOUTH);
+            getInputMap(WHEN_IN_FOCUSED_WINDOW).put(KeyStroke.getKeyStroke(KeyEvent.VK_F3, 0), "toggleStats");
+            getActionMap().put("toggleStats", new AbstractAction() {
+                @Override public void actionPerformed(ActionEvent e) {
+                    boolean show = !statsLabel.isVisible();
+                    ai.collectStats = show; // Bộ đếm chi tiết chỉ chạy khi lớp thống kê đang hiện
+                    statsLabel.setVisible(show);
+                }
+            });
+
+            getInputMap(WHEN_IN_FOCUSED_WINDOW).put(KeyStroke.getKeyStroke(KeyEvent.VK_F4, 0), "toggleAnalysis");
+            getActionMap().put("toggleAnalysis", new AbstractAction() {
+                @Override public void actionPerformed(ActionEvent e) {
+                    analysisMode = !analysisMode;
+                    if (analysisMode) startAnalysis();
+                    else stopAnalysis();
+                }
+            });
+
+            add(headerPanel, BorderLayout.NORTH);
+
+            // --- BOARD WRAPPER ---
+            boardView = new JPanel() {
+                @Override
+                protected void paintComponent(Graphics g) {
+                    drawBoard(g);
+                }
+            };
+            boardView.setOpaque(true);
+            boardView.addMouseListener(this);
+            add(boardView, BorderLayout.CENTER);
+
+            // Animation Timer: mỗi nhịp chỉ vẽ lại các ô đang lật
+            animTimer = new Timer(16, e -> tickAnimations());
+        }
+
+        private void tickAnimations() {
+            for (int sq = 0; sq < animAt.length; sq++) {
+                Anim d = animAt[sq];
+                if (d == null) continue;
+                d.update();
+                repaintCell(sq);
+                if (d.isDone) {
+                    animAt[sq] = null;
+                    animCount--;
+                }
+            }
+            if (animCount == 0) animTimer.stop();
+        }
+
+        private void clearAnimations() {
+            Arrays.fill(animAt, null);
+            animCount = 0;
+            animTimer.stop();
+        }
+
+        private void repaintCell(int sq) {
+            boardView.repaint(xOffset + sq % size * cellSize, yOffset + sq / size * cellSize, cellSize, cellSize);
+        }
+
+        // Đổi giữa Minimax và MCTS (chỉ gọi từ menu, lúc không có ván nào đang chạy); trả về true nếu đang dùng MCTS
+        public boolean toggleEngine() {
+            engine.cancel();
+            if (engine == minimax) {
+                if (mcts == null) mcts = new EngineExecutor(new MctsPlayer(), SwingUtilities::invokeLater);
+                engine = mcts;
+            } else {
+                engine = minimax;
+            }
+            return engine == mcts;
+        }
+
+        // Cỡ bàn tiếp theo trong SIZES (chỉ gọi từ menu); ván mới sẽ dùng cỡ này
+        public int nextBoardSize() {
+            int i = 0;
+            while (SIZES[i] != size) i++;
+            size = SIZES[(i + 1) % SIZES.length];
+            return size;
+        }
+
+        public void cancelAI() {
+            engine.cancel();
+            wideGen++;
+            if (wide != null) wide.cancel();
+        }
+
+        public void resetGame() {
+            if (game == null || game.size() != size) {
+                animAt = new Anim[size * size];
+                cachedW = -1; // Vẽ lại nền bàn cờ theo cỡ mới
+                if (size != 8 && (wide == null || wide.size() != size)) wide = new WidePlayer(size);
+            }
+            game = new WideGame(size);
+            wideGen++; // Bỏ kết quả của AI bàn lớn đang tính dở
+            if (wide != null) wide.cancel();
+            engine.newGame(); // Hủy nước AI đang tính dở (nếu có)
+            isGameOver = false;
+            isAIThinking = false;
+            analysis = null;
+            clearAnimations();
+            updateScoreUI();
+            repaint();
+            startAnalysis(); // Người chơi đi trước
+        }
+
+        // Phân tích thế cờ hiện tại trên luồng AI; mỗi độ sâu xong chỉ vẽ lại các ô có nước đi
+        private void startAnalysis() {
+            if (!analysisMode || size != 8 || isGameOver || isAIThinking || game.toMove() != BLACK) return;
+            analysis = null;
+            frame.stopWarmup();
+            engine.analyze(game.position(), BLACK, a -> {
+                analysis = a;
+                for (int sq = 0; sq < game.squares(); sq++) if (game.isValidMove(sq)) repaintCell(sq);
+                if (statsLabel.isVisible()) statsLabel.setText("analysis depth " + a.depth);
+            });
+        }
+
+        private void stopAnalysis() {
+            engine.cancelAnalysis(); // Nước AI đang tính (nếu có) vẫn chạy tiếp
+            if (analysis == null) return;
+            analysis = null;
+            repaint();
+        }
+
+        private void updateScoreUI() {
+            int b = game.count(BLACK);
+            int w = game.count(WHITE);
+            scoreBlack.setText("YOU: " + b);
+            scoreWhite.setText("AI: " + w);
+
+            if (game.toMove() == BLACK) {
+                scoreBlack.setForeground(new Color(0, 255, 127));
+                scoreWhite.setForeground(Color.GRAY);
+            } else {
+                scoreBlack.setForeground(Color.GRAY);
+                scoreWhite.setForeground(new Color(255, 100, 100));
+            }
+        }
+
+        // Tính lại kích thước ô và vẽ sẵn nền bàn cờ + quân cờ khi panel đổi kích thước
+        private void updateLayout() {
+            int w = boardView.getWidth();
+            int h = boardView.getHeight();
+            if (w == cachedW && h == cachedH && boardImage != null) return;
+            cachedW = w;
+            cachedH = h;
+            int boardSize = Math.max(Math.min(w, h) - 40, size);
+            cellSize = boardSize / size;
+            xOffset = (w - boardSize) / 2;
+            yOffset = (h - boardSize) / 2;
+
+            boardImage = new BufferedImage(Math.max(w, 1), Math.max(h, 1), BufferedImage.TYPE_INT_RGB);
+            Graphics2D g2 = boardImage.createGraphics();
+            g2.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+            g2.setColor(BACKGROUND);
+            g2.fillRect(0, 0, w, h);
+            g2.setColor(FELT);
+            g2.fillRoundRect(xOffset, yOffset, boardSize, boardSize, 10, 10);
+            g2.setColor(GRID);
+            g2.setStroke(GRID_STROKE);
+            for (int i = 0; i <= size; i++) {
+                g2.drawLine(xOffset + i * cellSize, yOffset, xOffset + i * cellSize, yOffset + boardSize);
+                g2.drawLine(xOffset, yOffset + i * cellSize, xOffset + boardSize, yOffset + i * cellSize);
+            }
+            g2.dispose();
+
+            scoreFont = new Font(Font.SANS_SERIF, Font.BOLD, Math.max(9, cellSize / 5));
+            discImage[BLACK] = renderDisc(BLACK);
+            discImage[WHITE] = renderDisc(WHITE);
+        }
+
+        private BufferedImage renderDisc(int player) {
+            int discSize = Math.max(cellSize - Math.max(4, cellSize / 7), 4);
+            BufferedImage img = new BufferedImage(discSize, discSize, BufferedImage.TYPE_INT_ARGB);
+            Graphics2D g2 = img.createGraphics();
+            g2.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+            g2.setColor(player == BLACK ? BLACK_FILL : WHITE_FILL);
+            g2.fillOval(0, 0, discSize, discSize);
+            g2.setColor(player == BLACK ? BLACK_RIM : WHITE_RIM);
+            g2.drawOval(2, 2, discSize - 4, discSize - 4);
+            g2.dispose();
+            return img;
+        }
+
+        private void drawBoard(Graphics g) {
+            updateLayout();
+            Graphics2D g2 = (Graphics2D) g;
+            g2.drawImage(boardImage, 0, 0, null);
+
+            // Chỉ vẽ các ô nằm trong vùng cần vẽ lại
+            Rectangle clip = g2.getClipBounds();
+            if (clip == null) clip = new Rectangle(0, 0, cachedW, cachedH);
+            int c0 = Math.max(0, (clip.x - xOffset) / cellSize), c1 = Math.min(size - 1, (clip.x + clip.width - xOffset) / cellSize);
+            int r0 = Math.max(0, (clip.y - yOffset) / cellSize), r1 = Math.min(size - 1, (clip.y + clip.height - yOffset) / cellSize);
+
+            boolean dots = game.toMove() == BLACK && !isGameOver && !isAIThinking;
+            int dot = Math.max(4, cellSize / 7); // Chấm gợi ý nhỏ lại theo ô trên bàn lớn
+            EngineExecutor.Analysis a = analysis != null && size == 8 && analysis.position.equals(game.position()) ? analysis : null;
+            g2.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+            for (int r = r0; r <= r1; r++) {
+                for (int c = c0; c <= c1; c++) {
+                    int sq = r * size + c;
+                    int x = xOffset + c * cellSize;
+                    int y = yOffset + r * cellSize;
+                    Anim ad = animAt[sq];
+                    if (ad != null) {
+                        drawDisc(g2, x, y, ad.currentColor, ad.scaleX);
+                    } else if (game.get(sq) != EMPTY) {
+                        drawDisc(g2, x, y, game.get(sq), 1.0);
+                    } else if (dots && game.isValidMove(sq)) {
+                        g2.setColor(MOVE_DOT);
+                        g2.fillOval(x + (cellSize - dot) / 2, y + (cellSize - dot) / 2, dot, dot);
+                        if (a != null && a.labels[sq] != null) drawScore(g2, x, y, a.labels[sq], sq == a.best);
+                    }
+                }
+            }
+        }
+
+        // Điểm ghi ngay dưới chấm gợi ý; nước tốt nhất tô vàng
+        private void drawScore(Graphics2D g2, int x, int y, String label, boolean best) {
+            g2.setFont(scoreFont);
+            FontMetrics fm = g2.getFontMetrics();
+            g2.setColor(best ? BEST_TEXT : SCORE_TEXT);
+            g2.drawString(label, x + (cellSize - fm.stringWidth(label)) / 2, y + cellSize / 2 + 7 + fm.getAscent());
+        }
+
+        private void drawDisc(Graphics2D g2, int x, int y, int player, double scaleX) {
+            BufferedImage img = discImage[player];
+            int discSize = img.getWidth();
+            int currentWidth = (int)(discSize * scaleX);
+            if (currentWidth <= 0) return;
+            int currentX = x + cellSize / 2 - currentWidth / 2;
+            int currentY = y + cellSize / 2 - discSize / 2;
+            g2.drawImage(img, currentX, currentY, currentWidth, discSize, null);
+        }
+
+        @Override
+        public void mousePressed(MouseEvent e) {
+            if (isGameOver || game.toMove() != BLACK || isAIThinking) return;
+
+            updateLayout();
+            int col = (e.getX() - xOffset) / cellSize;
+            int row = (e.getY() - yOffset) / cellSize;
+
+            if (row >= 0 && row < size && col >= 0 && col < size) {
+                int sq = row * size + col;
+                if (game.isValidMove(sq)) {
+                    if (analysisMode) stopAnalysis(); // Dừng phân tích ngay khi người chơi đi
+                    executeMove(sq);
+                    afterMove();
+                }
+            }
+        }
+
+        // --- Chuyển lượt sau mỗi nước đi (Game tự xử lý việc bỏ lượt) ---
+        private void afterMove() {
+            if (game.isOver()) {
+                isAIThinking = false;
+                updateScoreUI();
+                repaint();
+                checkGameOver();
+            } else if (game.toMove() == WHITE) {
+                // Người vừa đi, hoặc người chơi bị mất lượt -> AI đi
+                boolean humanPassed = game.opponentPassed();
+                updateScoreUI();
+                repaint();
+                if (humanPassed) JOptionPane.showMessageDialog(this, "Bạn không có nước đi! AI đi tiếp.");
+                startAITurn();
+            } else {
+                // Trả lượt về cho người chơi (kể cả khi AI bị mất lượt)
+                // AI vừa đi -> suy nghĩ trước nước đáp dự đoán trong lúc người chơi cân nhắc
+                // Khi đang phân tích thì thời gian này dành cho phân tích
+                if (isAIThinking && PONDER && !analysisMode && size == 8) engine.ponder(game.position(), BLACK);
+                isAIThinking = false;
+                updateScoreUI();
+                repaint();
+                startAnalysis();
+            }
+        }
+
+        // --- HÀM MỚI: Xử lý lượt đi của AI ---
+        private void startAITurn() {
+            isAIThinking = true;
+            updateScoreUI();
+            repaint();
+            frame.stopWarmup();
+            if (TIMING && aiTurnStart == 0) aiTurnStart = System.nanoTime();
+
+            // AI tính trên bản chụp thế cờ (bất biến); kết quả về luồng giao diện một lần,
+            // và bị bỏ qua nếu ván đã được reset hoặc về menu trong lúc AI suy nghĩ
+            if (size != 8) {
+                startWideSearch();
+                return;
+            }
+            engine.search(game.position(), WHITE, result -> {
+                if (result.move < 0) return;
+                if (statsLabel.isVisible()) statsLabel.setText(result.stats);
+                logFirstAIMove(result.stats);
+                executeMove(result.move);
+                afterMove();
+            });
+        }
+
+        // Như trên cho bàn khác 8x8, với bản sao các quân cờ thay cho Position
+        private void startWideSearch() {
+            long gen = ++wideGen;
+            WidePlayer player = wide;
+            long[] me = game.discs(WHITE), opp = game.discs(BLACK);
+            wideThread.execute(() -> {
+                // Xóa cờ hủy trước rồi mới xét lượt: cancelAI/resetGame tăng wideGen trước khi hủy, nên không bị mất
+                player.clearCancel();
+                if (gen != wideGen) return;
+                int move = player.getBestMove(me, opp);
+                String stats = String.format("d=%d %,d nodes", player.lastDepth, player.lastNodes);
+                SwingUtilities.invokeLater(() -> {
+                    if (gen != wideGen || move < 0) return;
+                    if (statsLabel.isVisible()) statsLabel.setText(stats);
+                    logFirstAIMove(stats);
+                    executeMove(move);
+                    afterMove();
+                });
+            });
+        }
+
+        // TIMING: nước đi đầu tiên của AI, tính từ lúc bắt đầu tìm và từ lúc mở chương trình
+        private void logFirstAIMove(String stats) {
+            if (!TIMING || aiTurnStart < 0) return;
+            System.err.printf("first AI move: %d ms search, %d ms after launch (%s)%n",
+                (System.nanoTime() - aiTurnStart) / 1_000_000, sinceLaunchMs(), stats);
+            aiTurnStart = -1;
+        }
+
+        private void executeMove(int sq) {
+            int player = game.toMove();
+            int opponent = (player == BLACK) ? WHITE : BLACK;
+            long[] flips = game.play(sq);
+            for (int f = WideBitboard.next(flips, 0); f >= 0; f = WideBitboard.next(flips, f + 1)) {
+                if (animAt[f] == null) animCount++;
+                animAt[f] = new Anim(opponent, player);
+            }
+            if (animCount > 0 && !animTimer.isRunning()) animTimer.start();
+            repaint();
+        }
+
+        private void checkGameOver() {
+            isGameOver = true;
+            int b = game.count(BLACK);
+            int w = game.count(WHITE);
+            String msg = (b > w) ? "BẠN THẮNG!" : (w > b) ? "AI THẮNG!" : "HÒA!";
+
+            // Hộp thoại lựa chọn khi kết thúc
+            Object[] options = {"Chơi lại", "Về Menu"};
+            int choice = JOptionPane.showOptionDialog(this,
+                    msg + "\nTỉ số: Bạn " + b + " - AI " + w,
+                    "Kết thúc",
+                    JOptionPane.YES_NO_OPTION,
+                    JOptionPane.INFORMATION_MESSAGE,
+                    null,
+                    options,
+                    options[0]);
+
+            if (choice == 0) {
+                resetGame(); // Chọn chơi lại -> Reset ngay
+            } else {
+                frame.showMenu(); // Chọn Về Menu
+            }
+        }
+
+        @Override public void mouseClicked(MouseEvent e) {}
+        @Override public void mouseReleased(MouseEvent e) {}
+        @Override public void mouseEntered(MouseEvent e) {}
+        @Override public void mouseExited(MouseEvent e) {}
+    }
+
+    // Animation Disc
+    class Anim {
+        int startColor, endColor, currentColor;
+        double scaleX = 1.0;
+        double step = 0.15;
+        boolean shrinking = true;
+        boolean isDone = false;
+
+        public Anim(int startColor, int endColor) {
+            this.startColor = startColor; this.endColor = endColor;
+            this.currentColor = startColor;
+        }
+        public void update() {
+            if(isDone) return;
+            if(shrinking) {
+                scaleX -= step;
+                if(scaleX <= 0) {
+                    scaleX = 0; shrinking = false; currentColor = endColor;
+                }
+            } else {
+                scaleX += step;
+                if(scaleX >= 1.0) { scaleX = 1.0; isDone = true; }
+            }
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,121 @@
+package othello.bench;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import othello.engine.AIPlayer;
+import othello.engine.Bitboard;
+import othello.engine.Evaluator;
+import othello.engine.Perft;
+import othello.engine.Position;
+
+/**
+ * Engine micro-benchmarks on fixed positions (BLACK to move), so every run
+ * measures exactly the same work:
+ * <pre>
+ *   mvn -B package &amp;&amp; java -jar bench/target/benchmarks.jar
+ * </pre>
+ */
+@State(Scope.Thread)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class EngineBenchmark {
+
+    /** Two seeded random-play positions per phase: 50, 36 and 24 empties. */
+    static final String[][] POSITIONS = {
+        {"--------------------OOO---XXX------XO------OXXX---O---O---------",
+         "------------------X---X----XOOO--OOOOO-----X-O----X-------------"},
+        {"-----------------O-OOOO---OOO-O---OOXXXX-OOXOXXX--X--XXX-X----X-",
+         "------------------XO-OO--XXXXXOX-O-OXXO-XOOOXXO--OO---O--O-X----"},
+        {"-----X-----OXX---OXOXXXXOOOOX-X--OXXXXXX-OOOOXXX-XOO-XXX-X-O--X-",
+         "OOOOOXO--OXOXO---OXXO----XXOX---XXXXXX--XXXOX----XXXO---OOOO-O--"},
+    };
+
+    @Param({"opening", "midgame", "late"})
+    public String phase;
+
+    long[] p, o;
+    AIPlayer ai;
+
+    @Setup
+    public void setup() {
+        String[] boards = POSITIONS["opening".equals(phase) ? 0 : "midgame".equals(phase) ? 1 : 2];
+        p = new long[boards.length];
+        o = new long[boards.length];
+        for (int i = 0; i < boards.length; i++) {
+            Position pos = Position.parse(boards[i]);
+            p[i] = pos.black;
+            o[i] = pos.white;
+        }
+        ai = new AIPlayer(20);
+        ai.threads = 1;
+        ai.maxDepth = 6;
+        ai.moveTimeMs = 3_600_000;
+        ai.endgameEmpties = 0;
+    }
+
+    @Setup(Level.Invocation)
+    public void clearTable() {
+        ai.newGame();
+    }
+
+    /** Legal-move generation ({@code getValidMoves} in the old Board code). */
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.NANOSECONDS)
+    public void moves(Blackhole bh) {
+        for (int i = 0; i < p.length; i++) bh.consume(Bitboard.moves(p[i], o[i]));
+    }
+
+    /** Flip computation and make for every legal move ({@code simulateMove}/{@code executeMove}). */
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.NANOSECONDS)
+    public void playAllMoves(Blackhole bh) {
+        for (int i = 0; i < p.length; i++) {
+            for (long m = Bitboard.moves(p[i], o[i]); m != 0; m &= m - 1) {
+                int sq = Long.numberOfTrailingZeros(m);
+                long f = Bitboard.flips(p[i], o[i], sq);
+                bh.consume(p[i] | f | (1L << sq));
+                bh.consume(o[i] & ~f);
+            }
+        }
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.NANOSECONDS)
+    public void eval(Blackhole bh) {
+        for (int i = 0; i < p.length; i++) bh.consume(Evaluator.eval(p[i], o[i], Evaluator.squares(p[i], o[i]), true));
+    }
+
+    /** Full fixed-depth (6) search from a cleared transposition table. */
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public void getBestMove(Blackhole bh) {
+        for (int i = 0; i < p.length; i++) bh.consume(ai.getBestMove(new Position(p[i], o[i]), Position.BLACK));
+    }
+
+    /** Leaf count to depth 5 from each position: move generation plus make, no evaluation. */
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public void perft5(Blackhole bh) {
+        for (int i = 0; i < p.length; i++) bh.consume(Perft.perft(p[i], o[i], 5));
+    }
+}
@@ -0,0 +1,122 @@
+package othello.bench;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import othello.engine.WideBitboard;
+import othello.engine.WidePlayer;
+
+/**
+ * {@link WideBitboard} and {@link WidePlayer} on every board size, so the
+ * larger boards can be compared with 8×8 (and 8×8 with the 64-bit
+ * {@link EngineBenchmark} numbers). Positions are seeded random play to
+ * 40% of the board with BLACK to move:
+ * <pre>
+ *   java -jar bench/target/benchmarks.jar WideBoardBenchmark
+ * </pre>
+ */
+@State(Scope.Thread)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class WideBoardBenchmark {
+
+    static final int POSITIONS = 4;
+
+    @Param({"6", "8", "10", "12"})
+    public int size;
+
+    WideBitboard bb;
+    WidePlayer player;
+    long[][] p, o;
+    long[] out, flips, child;
+
+    @Setup
+    public void setup() {
+        bb = new WideBitboard(size);
+        player = new WidePlayer(size);
+        player.maxDepth = 4;
+        player.moveTimeMs = 3_600_000;
+        p = new long[POSITIONS][];
+        o = new long[POSITIONS][];
+        out = new long[bb.words];
+        flips = new long[bb.words];
+        child = new long[bb.words];
+        SplittableRandom rnd = new SplittableRandom(0x5EED);
+        for (int i = 0; i < POSITIONS; ) {
+            long[] me = new long[bb.words], opp = new long[bb.words];
+            bb.initial(me, opp);
+            // initial() gives BLACK's discs first; the side to move alternates from there
+            boolean blackToMove = true;
+            while (WideBitboard.count(me) + WideBitboard.count(opp) < bb.squares * 2 / 5 || !blackToMove) {
+                bb.moves(me, opp, out);
+                if (WideBitboard.isEmpty(out)) break;
+                int sq = WideBitboard.next(out, 0);
+                for (int k = rnd.nextInt(WideBitboard.count(out)); k > 0; k--) sq = WideBitboard.next(out, sq + 1);
+                bb.flips(me, opp, sq, flips);
+                bb.play(me, opp, sq, flips);
+                long[] t = me; me = opp; opp = t;
+                blackToMove = !blackToMove;
+            }
+            bb.moves(me, opp, out);
+            if (WideBitboard.isEmpty(out)) continue;
+            p[i] = me;
+            o[i] = opp;
+            i++;
+        }
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.NANOSECONDS)
+    public void moves(Blackhole bh) {
+        for (int i = 0; i < POSITIONS; i++) {
+            bb.moves(p[i], o[i], out);
+            bh.consume(out[0]);
+        }
+    }
+
+    /** Flip computation and make for every legal move. */
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.NANOSECONDS)
+    public void playAllMoves(Blackhole bh) {
+        for (int i = 0; i < POSITIONS; i++) {
+            bb.moves(p[i], o[i], out);
+            for (int sq = WideBitboard.next(out, 0); sq >= 0; sq = WideBitboard.next(out, sq + 1)) {
+                bb.flips(p[i], o[i], sq, flips);
+                for (int w = 0; w < bb.words; w++) child[w] = p[i][w] | flips[w];
+                bh.consume(child[0]);
+            }
+        }
+    }
+
+    /** Leaf count to depth 4: move generation plus make, no evaluation. */
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public void perft4(Blackhole bh) {
+        for (int i = 0; i < POSITIONS; i++) bh.consume(player.perft(p[i], o[i], 4));
+    }
+
+    /** Fixed-depth (4) alpha-beta search; the node rate is what the larger boards cost. */
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public void getBestMove(Blackhole bh) {
+        for (int i = 0; i < POSITIONS; i++) bh.consume(player.getBestMove(p[i], o[i]));
+    }
+}
@@ -0,0 +1,772 @@
+package othello.engine;
+
+import java.util.Arrays;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.ObjIntConsumer;
+
+/**
+ * Iterative-deepening alpha-beta search on bitboards, scored by {@link Evaluator}.
+ * Known openings come from the {@link OpeningBook} when one is set, and
+ * once few enough squares are left moves come from the exact
+ * {@link EndgameSolver} instead. Inside the tree, moves are tried in
+ * {@link MoveOrder} order: hash move, killers, history, square weights.
+ * With a {@link ProbCut} table the search is selective: nodes that shallow
+ * searches show to be almost surely outside the window are cut early.
+ * <p>
+ * With {@code threads > 1} the search runs Lazy SMP: the calling thread
+ * drives the main iteration while helper threads search the same root with
+ * staggered depths and rotated root order, all sharing one lock-free
+ * {@link TranspositionTable}. Only the main worker's result is returned, so
+ * helpers can make the search faster but never change what "best" means.
+ * <p>
+ * Every call fills {@link #lastStats} and, when Flight Recorder is
+ * recording, emits an {@code othello.Search} event.
+ * <p>
+ * {@link #ponder} searches on the opponent's time: it assumes the reply
+ * the last principal variation predicted and searches the resulting
+ * position in the background with no deadline. If the next
+ * {@link #getBestMove} is for that position the running search just gets
+ * a deadline, otherwise it is stopped and a fresh one started.
+ */
+public final class AIPlayer implements Engine {
+
+    /** Beyond any evaluation or final score; bounds for full-window searches. */
+    private static final int INF = 1 << 20;
+    /** Half-width of the first aspiration window, in evaluation units (a corner is worth 100). */
+    private static final int ASPIRATION_WINDOW = 30;
+    private static final int ASPIRATION_LIMIT = ASPIRATION_WINDOW * 64;
+    /** Entry of an {@link #analyze} or {@link #scoreMoves} score array for a square that is not a legal move. */
+    public static final int NO_SCORE = Integer.MIN_VALUE;
+
+    /** Upper bound for iterative deepening; the time budget is the real limit. */
+    public int maxDepth = 60;
+    /** Time per move in milliseconds, used when no game clock is set. */
+    public long moveTimeMs = 1000;
+    /** Remaining game clock in milliseconds; negative means no clock. */
+    public long clockMs = -1;
+    /** Number of search threads, including the caller's. */
+    public int threads = Integer.getInteger("othello.threads", Runtime.getRuntime().availableProcessors());
+
+    /** At or below this many empty squares the exact {@link EndgameSolver} takes over. */
+    public int endgameEmpties = Integer.getInteger("othello.endgame", 18);
+    /** Solve for the disc difference; {@code false} only proves win/loss/draw (faster). */
+    public boolean endgameExact = true;
+
+    /** Opening book consulted before any search; {@code null} for none. */
+    public OpeningBook book;
+    /** Trained pattern tables used at the leaves instead of {@link Evaluator}; {@code null} for none. */
+    public PatternEvaluator patterns;
+    /** Multi-ProbCut parameters fitted for this evaluation; {@code null} searches every move to full depth. */
+    public ProbCut probCut;
+    /**
+     * How sure a ProbCut check must be before it cuts, in standard
+     * deviations of its prediction error: larger is safer and slower,
+     * {@code 0} turns ProbCut off.
+     */
+    public double selectivity = ProbCut.DEFAULT_SELECTIVITY;
+
+    /** Results of the last search. */
+    public int lastDepth, lastScore;
+    public long lastNodes;
+    /** Whether the last move came from the book, from a finished endgame solve, and how long the solve took. */
+    public boolean lastFromBook, lastSolved;
+    public long lastSolveMs;
+    /** Expected line of play from the last search, starting with the returned move; {@link Game#PASS} marks a pass. */
+    public int[] lastPv = new int[0];
+    /** Counters for the last call; see {@link SearchStats}. */
+    public final SearchStats lastStats = new SearchStats();
+    /** Collect the detailed counters even without a JFR recording (for the UI overlay). */
+    public boolean collectStats = Boolean.getBoolean("othello.stats");
+
+    final TranspositionTable tt;
+    final EndgameSolver solver;
+
+    private Worker[] workers = new Worker[0];
+    private ExecutorService pool;
+    private volatile boolean stopped;
+    // Moved by the caller while a pondering search runs; see setClock
+    private volatile long deadline;
+    private volatile boolean cancelled;
+    private boolean detailed;
+
+    private ExecutorService ponderThread;
+    private Future<Integer> pondering;
+    // Set by cancel(): the pondering search stopped early, so its result is no ponder hit
+    private volatile boolean ponderAborted;
+    private Position ponderPos;
+    private int ponderPlayer;
+    private long ponderStart;
+
+    public AIPlayer() {
+        this(Integer.getInteger("othello.tt.bits", TranspositionTable.DEFAULT_BITS));
+    }
+
+    public AIPlayer(int ttBits) {
+        tt = new TranspositionTable(ttBits);
+        solver = new EndgameSolver(Math.max(4, ttBits - 2));
+    }
+
+    /** Clears the transposition table and history; between moves of one game they are kept. */
+    @Override
+    public void newGame() {
+        stopPondering();
+        lastPv = new int[0];
+        tt.clear();
+        solver.newGame();
+        for (Worker w : workers) w.order.clear();
+    }
+
+    /**
+     * Best move for {@code player} in {@code pos}, as a square index, or
+     * {@code -1} if the player has to pass. Deepens 1, 2, 3... until the
+     * time budget runs out, the game tree is exhausted or {@link #maxDepth}
+     * is reached.
+     */
+    @Override
+    public int getBestMove(Position pos, int player) {
+        SearchEvent event = new SearchEvent();
+        event.begin();
+        long start = System.nanoTime();
+        int sq;
+        if (pondering != null && !ponderAborted && player == ponderPlayer && pos.equals(ponderPos)) {
+            // Ponder hit: the search has been running since ponderStart, so it only needs to finish
+            long budget = budgetMs(pos.empties()) * 1_000_000L;
+            setClock(Math.max(ponderStart + budget, start + budget / 4), budget);
+            sq = awaitPondering();
+            lastStats.ponderHit = true;
+        } else {
+            stopPondering();
+            detailed = collectStats || event.isEnabled();
+            lastStats.reset();
+            sq = decide(pos, player, false);
+        }
+        SearchStats st = lastStats;
+        st.elapsedNanos = System.nanoTime() - start;
+        st.depth = lastDepth;
+        st.score = lastScore;
+        st.nodes = lastNodes;
+        st.detailed = detailed && st.source == SearchStats.Source.SEARCH;
+        event.end();
+        if (event.shouldCommit()) {
+            event.source = st.source.name();
+            event.depth = st.depth;
+            event.score = st.score;
+            event.threads = st.threads;
+            event.empties = pos.empties();
+            event.nodes = st.nodes;
+            event.nodesPerSecond = (long) st.nodesPerSecond();
+            event.evals = st.evals;
+            event.ttProbes = st.ttProbes;
+            event.ttHits = st.ttHits;
+            event.cutoffs = st.totalCutoffs();
+            event.firstMoveCutoffs = st.cutoffs[0];
+            event.secondMoveCutoffs = st.cutoffs[1];
+            event.ebf = st.effectiveBranchingFactor();
+            event.ponderHit = st.ponderHit;
+            event.ttBytes = tt.capacity() * 16L;
+            event.commit();
+        }
+        return sq;
+    }
+
+    @Override public SearchStats stats() { return lastStats; }
+
+    @Override public int[] pv() { return lastPv; }
+
+    /**
+     * Scores every legal move of {@code player} in {@code pos}, each with a
+     * full window, at depth 1, 2, 3... until {@link #maxDepth}, the game
+     * tree is exhausted or {@link #cancel}; there is no time limit. After
+     * each completed depth {@code onDepth} gets the scores by square
+     * ({@link #NO_SCORE} where there is no move) and the depth. Runs on the
+     * calling thread with the main worker only, sharing the transposition
+     * table with later searches.
+     */
+    @Override
+    public void analyze(Position pos, int player, ObjIntConsumer<int[]> onDepth) {
+        stopPondering();
+        long me = pos.discs(player), opp = pos.discs(3 - player);
+        if (Bitboard.moves(me, opp) == 0) return;
+        ensureWorkers(Math.max(1, threads));
+        tt.newSearch();
+        stopped = false;
+        detailed = false;
+        setClock(Long.MAX_VALUE, 0);
+        workers[0].analyze(me, opp, Zobrist.hash(me, opp), onDepth);
+    }
+
+    /**
+     * Full-window score of every move of {@code player} in {@code pos}, by
+     * square ({@link #NO_SCORE} where there is no move), all from one
+     * search so they compare: {@link #analyze} deepened until
+     * {@link #maxDepth}, the end of the game or the time budget, keeping
+     * the last depth completed. Within {@link #endgameEmpties} every move
+     * is solved instead, on the search's scale ({@link Evaluator#WIN} plus
+     * the disc margin). {@code null} if there is no move or not even depth
+     * 1 finished. Sets {@link #lastDepth} and {@link #lastNodes}.
+     */
+    int[] scoreMoves(Position pos, int player) {
+        stopPondering();
+        long me = pos.discs(player), opp = pos.discs(3 - player);
+        long moves = Bitboard.moves(me, opp);
+        lastDepth = 0;
+        lastNodes = 0;
+        if (moves == 0) return null;
+        long budget = budgetMs(pos.empties()) * 1_000_000L;
+        setClock(System.nanoTime() + budget, budget);
+        if (pos.empties() <= endgameEmpties) {
+            int[] scores = new int[64];
+            Arrays.fill(scores, NO_SCORE);
+            for (; moves != 0; moves &= moves - 1) {
+                int sq = Long.numberOfTrailingZeros(moves);
+                long f = Bitboard.flips(me, opp, sq);
+                solver.solve(opp & ~f, me | f | (1L << sq), endgameExact);
+                if (solver.aborted) break;
+                lastNodes += solver.nodes;
+                int v = -solver.score;
+                scores[sq] = !endgameExact ? Integer.signum(v) * Evaluator.WIN
+                           : v > 0 ? Evaluator.WIN + v : v < 0 ? -Evaluator.WIN + v : 0;
+            }
+            if (moves == 0) {
+                lastDepth = pos.empties();
+                return scores;
+            }
+            // Out of time: the heuristic scores below are better than none
+        }
+        ensureWorkers(Math.max(1, threads));
+        tt.newSearch();
+        stopped = false;
+        detailed = false;
+        int[][] last = new int[1][];
+        workers[0].analyze(me, opp, Zobrist.hash(me, opp), (scores, depth) -> {
+            last[0] = scores;
+            lastDepth = depth;
+        });
+        lastNodes += workers[0].nodes;
+        return last[0];
+    }
+
+    /**
+     * Full-window score of {@code pos} for {@code player} at depth 0 (the
+     * evaluation), 1, 2... {@code depth}, without ProbCut and without time
+     * limit; what {@link ProbCut} is fitted to.
+     */
+    int[] depthScores(Position pos, int player, int depth) {
+        stopPondering();
+        long me = pos.discs(player), opp = pos.discs(3 - player);
+        ensureWorkers(Math.max(1, threads));
+        tt.newSearch();
+        stopped = false;
+        detailed = false;
+        setClock(Long.MAX_VALUE, 0);
+        return workers[0].depthScores(me, opp, Zobrist.hash(me, opp), depth);
+    }
+
+    /**
+     * Starts searching, on a background thread, the position that arises
+     * when {@code opponent} answers in {@code pos} with the reply predicted
+     * by the last search ({@code lastPv[1]}). Returns whether it started;
+     * there is nothing to ponder without a prediction, or when we would
+     * have to pass anyway.
+     */
+    @Override
+    public boolean ponder(Position pos, int opponent) {
+        stopPondering();
+        if (lastPv.length < 2 || lastPv[1] < 0 || (pos.moves(opponent) & (1L << lastPv[1])) == 0) return false;
+        Position next = pos.play(opponent, lastPv[1]);
+        int me = 3 - opponent;
+        if (next.moves(me) == 0) return false;
+
+        if (ponderThread == null) {
+            ponderThread = Executors.newSingleThreadExecutor(r -> {
+                Thread t = new Thread(r, "othello-ponder");
+                t.setDaemon(true);
+                return t;
+            });
+        }
+        detailed = collectStats || new SearchEvent().isEnabled();
+        lastStats.reset();
+        // No deadline until the opponent's move is known
+        setClock(Long.MAX_VALUE, 0);
+        // Cleared before cancelled is read, so a concurrent cancel() always ends up setting it
+        ponderAborted = false;
+        if (cancelled) ponderAborted = true;
+        ponderPos = next;
+        ponderPlayer = me;
+        ponderStart = System.nanoTime();
+        pondering = ponderThread.submit(() -> decide(next, me, true));
+        return true;
+    }
+
+    /** Stops any pondering search and waits for it; what it found stays in the transposition table. */
+    public void stopPondering() {
+        if (pondering == null) return;
+        stopped = true;
+        setClock(0, 0);
+        awaitPondering();
+    }
+
+    private int awaitPondering() {
+        Future<Integer> f = pondering;
+        pondering = null;
+        ponderPos = null;
+        try {
+            return f.get();
+        } catch (Exception e) {
+            throw new IllegalStateException("pondering search failed", e);
+        }
+    }
+
+    /**
+     * Makes the running search, pondering included, return as soon as
+     * possible with whatever it has, and every later one too until
+     * {@link #clearCancel}. Safe to call from any thread; the result of a
+     * cancelled search is meant to be thrown away.
+     */
+    @Override
+    public void cancel() {
+        cancelled = true;
+        ponderAborted = true;
+        stopped = true;
+        deadline = 0;
+        solver.setDeadline(0);
+    }
+
+    /** Undoes {@link #cancel} before the next search. */
+    @Override
+    public void clearCancel() { cancelled = false; }
+
+    /** The search stops at {@code end}; the solver a quarter budget earlier, so the heuristic search can take over. */
+    private void setClock(long end, long budget) {
+        deadline = end;
+        solver.setDeadline(end - budget / 4);
+        // Checked after the write, so a concurrent cancel() can never be overwritten
+        if (cancelled) { deadline = 0; solver.setDeadline(0); }
+    }
+
+    /** {@code ponder}: the clock was set by {@link #ponder} and is moved by the caller, not here. */
+    private int decide(Position pos, int player, boolean ponder) {
+        long me = pos.discs(player), opp = pos.discs(3 - player);
+        long moves = Bitboard.moves(me, opp);
+        lastDepth = 0; lastScore = 0; lastNodes = 0; lastFromBook = false; lastSolved = false; lastSolveMs = 0;
+        lastPv = new int[0];
+        if (moves == 0) return -1;
+        if (Long.bitCount(moves) == 1) {
+            lastStats.source = SearchStats.Source.FORCED;
+            lastPv = new int[] {Long.numberOfTrailingZeros(moves)};
+            return lastPv[0];
+        }
+        if (book != null) {
+            int sq = book.lookup(me, opp);
+            if (sq >= 0 && (moves & (1L << sq)) != 0) {
+                lastFromBook = true;
+                lastStats.source = SearchStats.Source.BOOK;
+                lastPv = new int[] {sq};
+                return sq;
+            }
+        }
+
+        if (!ponder) {
+            long budget = budgetMs(pos.empties()) * 1_000_000L;
+            setClock(System.nanoTime() + budget, budget);
+        }
+        if (pos.empties() <= endgameEmpties) {
+            // The solver gets three quarters of the budget; if it cannot finish, the heuristic search uses the rest
+            int sq = solver.solve(me, opp, endgameExact);
+            lastSolveMs = solver.elapsedMs;
+            if (!solver.aborted) {
+                lastSolved = true;
+                lastDepth = pos.empties();
+                lastScore = solver.score;
+                lastNodes = solver.nodes;
+                lastStats.source = SearchStats.Source.SOLVER;
+                lastPv = sq >= 0 ? new int[] {sq} : new int[0];
+                return sq;
+            }
+        }
+
+        // The search is colour-blind: boards and table keys are from the side to move
+        long key = Zobrist.hash(me, opp);
+        int n = Math.max(1, threads);
+        ensureWorkers(n);
+        tt.newSearch();
+        stopped = false;
+
+        Future<?>[] helpers = new Future<?>[n - 1];
+        for (int i = 1; i < n; i++) {
+            Worker h = workers[i];
+            helpers[i - 1] = pool.submit(() -> h.iterate(me, opp, key));
+        }
+        int best = workers[0].iterate(me, opp, key);
+        stopped = true;
+        for (int i = 1; i < n; i++) {
+            try {
+                helpers[i - 1].get();
+            } catch (Exception e) {
+                throw new IllegalStateException("helper search failed", e);
+            }
+        }
+        for (int i = 0; i < n; i++) lastStats.add(workers[i].stats);
+        lastNodes = lastStats.nodes;
+        lastDepth = workers[0].depthDone;
+        lastScore = workers[0].scoreDone;
+        lastStats.source = SearchStats.Source.SEARCH;
+        lastStats.threads = n;
+        lastPv = extendPv(workers[0].pvDone, me, opp, key, best);
+        return best;
+    }
+
+    /**
+     * Table cutoffs cut the PV short, so it is continued with the stored
+     * best moves for as long as they are legal. If the line does not start
+     * with the move played (a partial last iteration), only that move is kept.
+     */
+    private int[] extendPv(int[] line, long me, long opp, long key, int best) {
+        if (line.length == 0 || line[0] != best) line = new int[] {best};
+        int[] out = new int[MoveOrder.MAX_PLY];
+        int len = 0;
+        while (len < out.length) {
+            long moves = Bitboard.moves(me, opp);
+            if (moves == 0) {
+                if (Bitboard.moves(opp, me) == 0 || (len < line.length && line[len] != Game.PASS)) break;
+                out[len++] = Game.PASS;
+                key = Zobrist.afterPass(key);
+                long t = me; me = opp; opp = t;
+                continue;
+            }
+            int sq = len < line.length ? line[len] : -1;
+            if (sq < 0) {
+                long entry = tt.probe(key);
+                if (entry != 0) sq = TranspositionTable.move(entry);
+            }
+            if (sq < 0 || (moves & (1L << sq)) == 0) break;
+            long f = Bitboard.flips(me, opp, sq);
+            key = Zobrist.afterMove(key, sq, f);
+            long t = me | f | (1L << sq);
+            me = opp & ~f;
+            opp = t;
+            out[len++] = sq;
+        }
+        return Arrays.copyOf(out, len);
+    }
+
+    private long budgetMs(int empties) {
+        if (clockMs < 0) return moveTimeMs;
+        // Split the remaining clock evenly over the moves we still have to make
+        return Math.max(10, clockMs / Math.max(1, (empties + 1) / 2));
+    }
+
+    private void ensureWorkers(int n) {
+        if (workers.length == n) return;
+        if (pool != null) pool.shutdownNow();
+        pool = n > 1 ? Executors.newFixedThreadPool(n - 1, r -> {
+            Thread t = new Thread(r, "othello-search");
+            t.setDaemon(true);
+            return t;
+        }) : null;
+        workers = new Worker[n];
+        for (int i = 0; i < n; i++) workers[i] = new Worker(i);
+    }
+
+    /** Per-thread search state; the main worker is index 0. */
+    private final class Worker {
+        final int id;
+        final SearchStats stats = new SearchStats();
+        final MoveOrder order = new MoveOrder();
+        private final int[][] moveBuf = new int[MoveOrder.MAX_PLY][MoveOrder.MAX_MOVES];
+        // Triangular PV table: pv[ply] holds the best line found from that ply down
+        private final int[][] pv = new int[MoveOrder.MAX_PLY + 1][MoveOrder.MAX_PLY + 1];
+        private final int[] pvLen = new int[MoveOrder.MAX_PLY + 1];
+        long nodes;
+        int depthDone, scoreDone;
+        int[] pvDone = new int[0];
+        private boolean abort, horizon, detailed;
+        private PatternEvaluator patterns;
+        private ProbCut probCut;
+        private double selectivity;
+
+        Worker(int id) { this.id = id; }
+
+        /** Iterative deepening on the root; {@code me} is the side to move. */
+        int iterate(long me, long opp, long key) {
+            nodes = 0; abort = false; depthDone = 0; pvDone = new int[0];
+            stats.reset();
+            order.newSearch();
+            detailed = AIPlayer.this.detailed;
+            settings(true);
+            try {
+                return deepen(me, opp, key);
+            } finally {
+                stats.nodes = nodes;
+            }
+        }
+
+        /**
+         * Scores every root move with a full window, no aspiration, at depth
+         * 1, 2, 3... until {@link #maxDepth}, an abort or every line reaching
+         * the end of the game; {@code onDepth} gets the scores by square after
+         * each completed depth.
+         */
+        void analyze(long me, long opp, long key, ObjIntConsumer<int[]> onDepth) {
+            nodes = 0; abort = false;
+            stats.reset();
+            order.newSearch();
+            detailed = false;
+            settings(true);
+            int pst = Evaluator.squares(me, opp);
+            for (int depth = 1; depth <= maxDepth; depth++) {
+                int[] scores = new int[64];
+                Arrays.fill(scores, NO_SCORE);
+                boolean exact = true;
+                for (long moves = Bitboard.moves(me, opp); moves != 0; moves &= moves - 1) {
+                    int sq = Long.numberOfTrailingZeros(moves);
+                    long f = Bitboard.flips(me, opp, sq);
+                    horizon = false;
+                    int val = -pvs(opp & ~f, me | f | (1L << sq), Zobrist.afterMove(key, sq, f),
+                                   -(pst + Evaluator.squareDelta(sq, f)), depth - 1, 1, -INF, INF);
+                    if (abort) return;
+                    scores[sq] = val;
+                    exact &= !horizon;
+                }
+                onDepth.accept(scores, depth);
+                // Every line reached the end of the game: deeper would give the same scores
+                if (exact) return;
+            }
+        }
+
+        /** See {@link AIPlayer#depthScores}. */
+        int[] depthScores(long me, long opp, long key, int maxDepth) {
+            nodes = 0; abort = false;
+            stats.reset();
+            order.newSearch();
+            detailed = false;
+            settings(false);
+            int pst = Evaluator.squares(me, opp);
+            int[] scores = new int[maxDepth + 1];
+            scores[0] = patterns != null ? patterns.eval(me, opp) : Evaluator.eval(me, opp, pst, true);
+            for (int depth = 1; depth <= maxDepth; depth++) scores[depth] = pvs(me, opp, key, pst, depth, 0, -INF, INF);
+            return scores;
+        }
+
+        /** Copies the player's evaluation and selectivity settings, which may change between searches. */
+        private void settings(boolean selective) {
+            patterns = AIPlayer.this.patterns;
+            selectivity = AIPlayer.this.selectivity;
+            probCut = selective && selectivity > 0 ? AIPlayer.this.probCut : null;
+        }
+
+        private int deepen(long me, long opp, long key) {
+            long moves = Bitboard.moves(me, opp);
+            int n = Long.bitCount(moves);
+            int[] rootMoves = new int[n], scores = new int[n];
+            for (int i = 0; moves != 0; moves &= moves - 1) rootMoves[i++] = Long.numberOfTrailingZeros(moves);
+            if (id > 0) rotate(rootMoves, id % n);
+            int best = rootMoves[0];
+            int pst = Evaluator.squares(me, opp);
+
+            // Helpers skip every other depth so they are rarely in lock-step with the main worker
+            for (int depth = 1 + (id & 1); depth <= maxDepth; depth++) {
+                // Aspiration: search a narrow window around the last score, widening on a fail
+                int delta = ASPIRATION_WINDOW;
+                int lo = -INF, hi = INF;
+                if (depthDone >= 2 && Math.abs(scoreDone) < Evaluator.WIN) { lo = scoreDone - delta; hi = scoreDone + delta; }
+                int iterBest, score;
+                while (true) {
+                    horizon = false;
+                    iterBest = -1;
+                    score = -INF;
+                    int alpha = lo;
+                    for (int i = 0; i < n; i++) {
+                        int sq = rootMoves[i];
+                        long f = Bitboard.flips(me, opp, sq);
+                        long np = opp & ~f, no = me | f | (1L << sq);
+                        long k = Zobrist.afterMove(key, sq, f);
+                        int cp = -(pst + Evaluator.squareDelta(sq, f));
+                        int val;
+                        if (i == 0) {
+                            val = -pvs(np, no, k, cp, depth - 1, 1, -hi, -alpha);
+                        } else {
+                            val = -pvs(np, no, k, cp, depth - 1, 1, -alpha - 1, -alpha);
+                            if (val > alpha && val < hi && !abort) val = -pvs(np, no, k, cp, depth - 1, 1, -hi, -alpha);
+                        }
+                        if (abort) break;
+                        scores[i] = val;
+                        if (val > score) {
+                            score = val;
+                            if (val > alpha) { alpha = val; iterBest = i; updatePv(0, sq); }
+                        }
+                        if (alpha >= hi) break;
+                    }
+                    if (abort || (score > lo && score < hi)) break;
+                    // Fail low or high: widen that side, falling back to a full window after a few tries
+                    delta *= 4;
+                    if (score <= lo) lo = delta > ASPIRATION_LIMIT ? -INF : Math.max(-INF, score - delta);
+                    else hi = delta > ASPIRATION_LIMIT ? INF : Math.min(INF, score + delta);
+                }
+                // The previous best is searched first, so a partial iteration is still usable, unless it failed low
+                if (iterBest >= 0) {
+                    best = rootMoves[iterBest];
+                    scoreDone = scores[iterBest];
+                    depthDone = depth;
+                    pvDone = Arrays.copyOf(pv[0], pvLen[0]);
+                }
+                if (abort || !horizon || System.nanoTime() >= deadline) break;
+                scores[iterBest] = Integer.MAX_VALUE;
+                sortRoot(rootMoves, scores, n);
+            }
+            return best;
+        }
+
+        /**
+         * Negamax principal variation search from the side to move's point
+         * of view; {@code pst} is its square-weight score, updated
+         * incrementally by the caller. The first move gets the full window,
+         * the rest a null window with a re-search when one beats alpha.
+         */
+        private int pvs(long me, long opp, long key, int pst, int depth, int ply, int alpha, int beta) {
+            pvLen[ply] = 0;
+            if ((++nodes & 1023) == 0 && (stopped || System.nanoTime() >= deadline)) abort = true;
+            if (abort) return 0;
+            if (depth == 0) {
+                horizon = true;
+                if (detailed) stats.evals++;
+                return patterns != null ? patterns.eval(me, opp) : Evaluator.eval(me, opp, pst, true);
+            }
+            long moves = Bitboard.moves(me, opp);
+            if (moves == 0) {
+                if (Bitboard.moves(opp, me) == 0) {
+                    if (detailed) stats.evals++;
+                    return Evaluator.terminal(me, opp);
+                }
+                // A pass costs a ply, so a search of depth d always ends with the same side to move
+                int val = -pvs(opp, me, Zobrist.afterPass(key), -pst, depth - 1, ply + 1, -beta, -alpha);
+                updatePv(ply, Game.PASS);
+                return val;
+            }
+
+            int ttMove = -1;
+            long entry = tt.probe(key);
+            if (detailed) { stats.ttProbes++; if (entry != 0) stats.ttHits++; }
+            if (entry != 0) {
+                ttMove = TranspositionTable.move(entry);
+                int ttDepth = TranspositionTable.depth(entry);
+                if (ttDepth >= depth) {
+                    int score = TranspositionTable.score(entry);
+                    if (ttDepth != TranspositionTable.SOLVED) horizon = true;
+                    switch (TranspositionTable.bound(entry)) {
+                        case TranspositionTable.EXACT: return score;
+                        case TranspositionTable.LOWER: alpha = Math.max(alpha, score); break;
+                        default: beta = Math.min(beta, score); break;
+                    }
+                    if (beta <= alpha) return score;
+                }
+            }
+            // The bound stored below is relative to the window searched, which the table may have narrowed
+            int alpha0 = alpha;
+
+            if (probCut != null && depth >= ProbCut.MIN_DEPTH) {
+                int cut = probCut(me, opp, key, pst, depth, ply, alpha, beta);
+                if (cut != NO_SCORE) {
+                    horizon = true;
+                    pvLen[ply] = 0;
+                    return cut;
+                }
+            }
+
+            // Track separately whether this subtree hit the depth limit anywhere
+            boolean outerHorizon = horizon;
+            horizon = false;
+            int side = ply & 1;
+            int[] list = moveBuf[Math.min(ply, MoveOrder.MAX_PLY - 1)];
+            int n = order.order(moves, ttMove, ply, side, depth, list);
+            int best = -INF, bestSq = -1;
+            for (int i = 0; i < n; i++) {
+                int sq = list[i];
+                long f = Bitboard.flips(me, opp, sq);
+                long np = opp & ~f, no = me | f | (1L << sq);
+                long k = Zobrist.afterMove(key, sq, f);
+                int cp = -(pst + Evaluator.squareDelta(sq, f));
+                int val;
+                if (i == 0) {
+                    val = -pvs(np, no, k, cp, depth - 1, ply + 1, -beta, -alpha);
+                } else {
+                    val = -pvs(np, no, k, cp, depth - 1, ply + 1, -alpha - 1, -alpha);
+                    if (val > alpha && val < beta && !abort) val = -pvs(np, no, k, cp, depth - 1, ply + 1, -beta, -alpha);
+                }
+                if (abort) return 0;
+                if (val > best) {
+                    best = val;
+                    bestSq = sq;
+                    if (val > alpha) { alpha = val; updatePv(ply, sq); }
+                }
+                if (alpha >= beta) {
+                    order.cutoff(sq, ply, side, depth);
+                    if (detailed) stats.cutoff(i);
+                    break;
+                }
+            }
+            boolean subHorizon = horizon;
+            horizon = outerHorizon | subHorizon;
+            int bound = best <= alpha0 ? TranspositionTable.UPPER : best >= beta ? TranspositionTable.LOWER : TranspositionTable.EXACT;
+            tt.store(key, subHorizon ? depth : TranspositionTable.SOLVED, bound, best, bestSq);
+            return best;
+        }
+
+        /**
+         * Multi-ProbCut: for each check of this depth, cheapest first, a
+         * null-window search to the check's shallow depth around the score
+         * that would predict the deep result outside the window with the
+         * required confidence. Returns the window bound that was proven
+         * likely enough to fail on, or {@link #NO_SCORE} to search normally.
+         */
+        private int probCut(long me, long opp, long key, int pst, int depth, int ply, int alpha, int beta) {
+            for (ProbCut.Check c : probCut.checks(64 - Long.bitCount(me | opp), depth)) {
+                double margin = selectivity * c.sigma;
+                if (beta < Evaluator.WIN) {
+                    // a * shallow + b - margin >= beta
+                    int bound = (int) Math.ceil((beta + margin - c.b) / c.a);
+                    if (bound < Evaluator.WIN) {
+                        int v = pvs(me, opp, key, pst, c.shallow, ply, bound - 1, bound);
+                        if (abort) return NO_SCORE;
+                        if (v >= bound) return beta;
+                    }
+                }
+                if (alpha > -Evaluator.WIN) {
+                    int bound = (int) Math.floor((alpha - margin - c.b) / c.a);
+                    if (bound > -Evaluator.WIN) {
+                        int v = pvs(me, opp, key, pst, c.shallow, ply, bound, bound + 1);
+                        if (abort) return NO_SCORE;
+                        if (v <= bound) return alpha;
+                    }
+                }
+            }
+            return NO_SCORE;
+        }
+
+        /** {@code move} is the new best at {@code ply}: its line is that move followed by the child's line. */
+        private void updatePv(int ply, int move) {
+            int[] line = pv[ply], child = pv[ply + 1];
+            int len = Math.min(pvLen[ply + 1], line.length - 1);
+            line[0] = move;
+            System.arraycopy(child, 0, line, 1, len);
+            pvLen[ply] = len + 1;
+        }
+    }
+
+    /** Sorts root moves by the previous iteration's score, best first. */
+    private static void sortRoot(int[] moves, int[] scores, int n) {
+        for (int i = 1; i < n; i++) {
+            int m = moves[i], sc = scores[i], j = i - 1;
+            while (j >= 0 && scores[j] < sc) { moves[j + 1] = moves[j]; scores[j + 1] = scores[j]; j--; }
+            moves[j + 1] = m; scores[j + 1] = sc;
+        }
+    }
+
+    private static void rotate(int[] a, int k) {
+        if (k == 0) return;
+        int[] copy = a.clone();
+        for (int i = 0; i < a.length; i++) a[i] = copy[(i + k) % a.length];
+    }
+}
@@ -0,0 +1,280 @@
+package othello.engine;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Batch annotation of recorded games.
+ * <pre>
+ *   Analyzer [-engine config] [-workers W] [-blunder N] [-out file] files...
+ * </pre>
+ * Files ending in {@code .wtb} are read as WTHOR databases, anything else
+ * as transcripts with one game per line as concatenated squares
+ * ({@code f5d6c3d3...}); text after the moves is ignored. Both are
+ * memory-mapped a window at a time and each game is analysed as soon as
+ * it is read, on {@code W} workers (default: all cores) with their own
+ * engine ({@link EngineConfig} syntax, default {@value #DEFAULT_ENGINE});
+ * the opening book is never consulted, every position is searched.
+ * Only a few games per worker are in flight, so memory use does not grow
+ * with the archive.
+ * <p>
+ * Output is one line per move, in input order:
+ * {@code game ply colour move best score played loss flag}. Scores are in
+ * engine units for the side to move ({@link Evaluator#WIN} plus the disc
+ * margin for a proven win); {@code score} is the best move's and
+ * {@code played} the move actually played's, both from one search of the
+ * position in which every move gets a full window to the same depth (or
+ * is solved), so {@code loss} is their difference and never negative.
+ * {@code ?} marks a position whose search ran out of time before depth 1.
+ * Moves losing at least {@code N} (default {@value #DEFAULT_BLUNDER}) are
+ * flagged {@code ??}.
+ */
+public final class Analyzer {
+
+    static final String DEFAULT_ENGINE = "analyze:depth=8,time=60000,endgame=14";
+    static final int DEFAULT_BLUNDER = 200;
+    /** Bytes mapped at a time; a record never straddles two windows. */
+    static final long WINDOW = 1L << 28;
+    static final int WTHOR_HEADER = 16, WTHOR_RECORD = 68;
+    private static final int UNKNOWN = Integer.MIN_VALUE;
+
+    private final int blunder;
+    private final Writer out;
+    private final ExecutorService pool;
+    /** Games read but not yet written; bounds memory to a few games per worker. */
+    private final Semaphore inFlight;
+    private final ThreadLocal<AIPlayer> engines;
+    /** Finished games waiting for an earlier one before they can be written. */
+    private final Map<Long, String> pending = new HashMap<>();
+    private long nextToWrite, games;
+    private final AtomicLong positions = new AtomicLong(), illegal = new AtomicLong();
+    private volatile IOException writeError;
+
+    private Analyzer(EngineConfig engine, int workers, int blunder, Writer out) {
+        this.blunder = blunder;
+        this.out = out;
+        pool = Executors.newFixedThreadPool(workers);
+        inFlight = new Semaphore(4 * workers);
+        if (engine.mcts) throw new IllegalArgumentException("the analyzer needs the minimax engine");
+        engines = ThreadLocal.withInitial(engine::createMinimax);
+    }
+
+    public static void main(String[] args) throws Exception {
+        String config = DEFAULT_ENGINE, outFile = null;
+        int workers = Runtime.getRuntime().availableProcessors(), blunder = DEFAULT_BLUNDER;
+        List<Path> files = new ArrayList<>();
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "-engine": config = args[++i]; break;
+                case "-workers": workers = Integer.parseInt(args[++i]); break;
+                case "-blunder": blunder = Integer.parseInt(args[++i]); break;
+                case "-out": outFile = args[++i]; break;
+                default: files.add(Paths.get(args[i]));
+            }
+        }
+        if (files.isEmpty()) {
+            System.err.println("usage: Analyzer [-engine config] [-workers W] [-blunder N] [-out file] files...");
+            System.err.println("  config = name:time=100,depth=60,endgame=18,wld=false,tt=18,eval=path (default " + DEFAULT_ENGINE + ")");
+            System.exit(2);
+        }
+
+        long start = System.nanoTime();
+        try (Writer out = new BufferedWriter(outFile == null
+                ? new OutputStreamWriter(System.out, StandardCharsets.US_ASCII)
+                : Files.newBufferedWriter(Paths.get(outFile), StandardCharsets.US_ASCII), 1 << 16)) {
+            Analyzer a = new Analyzer(EngineConfig.parse(config), workers, blunder, out);
+            out.write("# game ply colour move best score played loss flag\n");
+            try {
+                for (Path f : files) {
+                    if (f.toString().toLowerCase().endsWith(".wtb")) a.readWthor(f);
+                    else a.readTranscripts(f);
+                }
+            } finally {
+                a.pool.shutdown();
+                a.pool.awaitTermination(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+            }
+            if (a.writeError != null) throw a.writeError;
+            double seconds = (System.nanoTime() - start) / 1e9;
+            System.err.printf("%,d games, %,d positions in %.1f s (%.0f positions/s), %,d games with illegal moves%n",
+                              a.games, a.positions.get(), seconds, a.positions.get() / seconds, a.illegal.get());
+        }
+    }
+
+    /** One game per line; lines without moves are skipped. */
+    private void readTranscripts(Path file) throws IOException, InterruptedException {
+        try (FileChannel ch = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = ch.size();
+            int[] moves = new int[60];
+            for (long base = 0; base < size; ) {
+                MappedByteBuffer buf = ch.map(FileChannel.MapMode.READ_ONLY, base, Math.min(WINDOW, size - base));
+                boolean last = base + buf.limit() == size;
+                // Lines after the last newline of a window are read again at the start of the next
+                int end = buf.limit();
+                if (!last) {
+                    while (end > 0 && buf.get(end - 1) != '\n') end--;
+                    if (end == 0) throw new IOException(file + ": line longer than " + WINDOW + " bytes");
+                }
+                for (int i = 0; i < end; ) {
+                    int n = 0;
+                    // Squares until the first thing that is not one; blanks in between are allowed
+                    while (i < end && buf.get(i) != '\n') {
+                        int c = buf.get(i);
+                        if (c == ' ' || c == '\t' || c == '\r') { i++; continue; }
+                        c |= 0x20;
+                        int r = i + 1 < end ? buf.get(i + 1) - '1' : -1;
+                        if (c < 'a' || c > 'h' || r < 0 || r > 7 || n == moves.length) break;
+                        moves[n++] = Bitboard.square(r, c - 'a');
+                        i += 2;
+                    }
+                    while (i < end && buf.get(i) != '\n') i++;
+                    i++;
+                    if (n > 0) submit(Arrays.copyOf(moves, n));
+                }
+                base += end;
+            }
+        }
+    }
+
+    /**
+     * WTHOR database: a 16-byte header, then 68-byte records of which the
+     * last 60 bytes are the moves as {@code 10 * row + column} (1-based),
+     * 0 after the last move.
+     */
+    private void readWthor(Path file) throws IOException, InterruptedException {
+        try (FileChannel ch = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = ch.size();
+            if (size < WTHOR_HEADER) throw new IOException(file + ": not a WTHOR file");
+            MappedByteBuffer header = ch.map(FileChannel.MapMode.READ_ONLY, 0, WTHOR_HEADER);
+            header.order(ByteOrder.LITTLE_ENDIAN);
+            long count = header.getInt(4) & 0xFFFFFFFFL;
+            int board = header.get(12);
+            if (board != 0 && board != 8) throw new IOException(file + ": " + board + "x" + board + " games are not supported");
+            count = Math.min(count, (size - WTHOR_HEADER) / WTHOR_RECORD);
+            long perWindow = WINDOW / WTHOR_RECORD;
+            int[] moves = new int[60];
+            for (long g = 0; g < count; g += perWindow) {
+                long records = Math.min(perWindow, count - g);
+                MappedByteBuffer buf = ch.map(FileChannel.MapMode.READ_ONLY, WTHOR_HEADER + g * WTHOR_RECORD, records * WTHOR_RECORD);
+                for (int r = 0; r < records; r++) {
+                    int n = 0;
+                    for (int k = 0; k < 60; k++) {
+                        int code = buf.get(r * WTHOR_RECORD + 8 + k) & 0xFF;
+                        int row = code / 10 - 1, col = code % 10 - 1;
+                        if (row < 0 || row > 7 || col < 0 || col > 7) break;
+                        moves[n++] = Bitboard.square(row, col);
+                    }
+                    if (n > 0) submit(Arrays.copyOf(moves, n));
+                }
+            }
+        }
+    }
+
+    private void submit(int[] moves) throws InterruptedException {
+        if (writeError != null) return;
+        inFlight.acquire();
+        long id = games++;
+        pool.execute(() -> {
+            String text;
+            try {
+                text = analyse(engines.get(), id, moves);
+            } catch (RuntimeException e) {
+                text = "# game " + id + ": " + e + "\n";
+            }
+            write(id, text);
+        });
+    }
+
+    /** Writes game {@code id} once every earlier game is out, in input order. */
+    private void write(long id, String text) {
+        synchronized (pending) {
+            pending.put(id, text);
+            for (String t; (t = pending.remove(nextToWrite)) != null; nextToWrite++) {
+                try {
+                    if (writeError == null) out.write(t);
+                } catch (IOException e) {
+                    writeError = e;
+                }
+                inFlight.release();
+            }
+        }
+    }
+
+    /** Replays and analyses one game; returns its output lines. */
+    String analyse(AIPlayer ai, long id, int[] moves) {
+        ai.newGame();
+        ai.book = null;
+        Game g = new Game();
+        int n = moves.length;
+        Position[] pos = new Position[n];
+        int[] colour = new int[n];
+        StringBuilder sb = new StringBuilder(n * 32);
+        for (int i = 0; i < n; i++) {
+            if (!g.isValidMove(moves[i])) {
+                sb.append("# game ").append(id).append(": illegal move ").append(Bitboard.name(moves[i]))
+                  .append(" at ply ").append(i + 1).append('\n');
+                illegal.incrementAndGet();
+                n = i;
+                break;
+            }
+            pos[i] = g.position();
+            colour[i] = g.toMove();
+            g.play(moves[i]);
+        }
+
+        int[] best = new int[n], score = new int[n], played = new int[n];
+        for (int i = 0; i < n; i++) {
+            int[] s = ai.scoreMoves(pos[i], colour[i]);
+            if (s == null) {
+                best[i] = -1;
+                score[i] = played[i] = UNKNOWN;
+                continue;
+            }
+            // On a tie the move played counts as best
+            int b = moves[i];
+            for (int sq = 0; sq < 64; sq++) if (s[sq] != AIPlayer.NO_SCORE && s[sq] > s[b]) b = sq;
+            best[i] = b;
+            score[i] = s[b];
+            played[i] = s[moves[i]];
+        }
+        positions.addAndGet(n);
+
+        for (int i = 0; i < n; i++) {
+            int loss = score[i] != UNKNOWN ? score[i] - played[i] : UNKNOWN;
+            sb.append(id).append(' ').append(i + 1).append(' ').append(colour[i] == Position.BLACK ? 'X' : 'O')
+              .append(' ').append(Bitboard.name(moves[i]))
+              .append(' ').append(best[i] < 0 ? "--" : Bitboard.name(best[i]));
+            append(sb, score[i]);
+            append(sb, played[i]);
+            append(sb, loss);
+            if (loss != UNKNOWN && loss >= blunder) sb.append(" ??");
+            sb.append('\n');
+        }
+        return sb.toString();
+    }
+
+    private static void append(StringBuilder sb, int v) {
+        sb.append(' ');
+        if (v == UNKNOWN) sb.append('?');
+        else sb.append(v);
+    }
+}
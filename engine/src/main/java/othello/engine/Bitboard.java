@@ -0,0 +1,79 @@
+package othello.engine;
+
+/**
+ * Bitboard primitives. A side is a {@code long} with bit {@code r * 8 + c}
+ * set for every disc it owns; all operations are shift-and-mask and never
+ * allocate, so they can be called once per search node.
+ */
+public final class Bitboard {
+
+    /** Every square except columns 0 and 7, used to stop horizontal and diagonal shifts wrapping. */
+    private static final long NOT_EDGE = 0x7E7E7E7E7E7E7E7EL;
+
+    private Bitboard() {}
+
+    public static int square(int r, int c) { return r * 8 + c; }
+    public static int row(int sq) { return sq >>> 3; }
+    public static int col(int sq) { return sq & 7; }
+
+    /** Square name in the usual "a1".."h8" notation (column letter, row number). */
+    public static String name(int sq) { return (char) ('a' + col(sq)) + Integer.toString(row(sq) + 1); }
+
+    /** Inverse of {@link #name}; returns {@code -1} for anything that is not a square. */
+    public static int parseSquare(String s) {
+        if (s.length() != 2) return -1;
+        int c = Character.toLowerCase(s.charAt(0)) - 'a', r = s.charAt(1) - '1';
+        return c >= 0 && c < 8 && r >= 0 && r < 8 ? square(r, c) : -1;
+    }
+
+    /** All squares where {@code p} can play against {@code o}. */
+    public static long moves(long p, long o) {
+        long empty = ~(p | o);
+        long h = o & NOT_EDGE;
+        long m = 0;
+        m |= shiftLeft(p, h, 1) | shiftRight(p, h, 1);
+        m |= shiftLeft(p, o, 8) | shiftRight(p, o, 8);
+        m |= shiftLeft(p, h, 7) | shiftRight(p, h, 7);
+        m |= shiftLeft(p, h, 9) | shiftRight(p, h, 9);
+        return m & empty;
+    }
+
+    // Six steps are enough: a line holds at most six opponent discs between two of ours.
+    private static long shiftLeft(long p, long mask, int s) {
+        long t = mask & (p << s);
+        t |= mask & (t << s); t |= mask & (t << s);
+        t |= mask & (t << s); t |= mask & (t << s);
+        t |= mask & (t << s);
+        return t << s;
+    }
+
+    private static long shiftRight(long p, long mask, int s) {
+        long t = mask & (p >>> s);
+        t |= mask & (t >>> s); t |= mask & (t >>> s);
+        t |= mask & (t >>> s); t |= mask & (t >>> s);
+        t |= mask & (t >>> s);
+        return t >>> s;
+    }
+
+    /** Discs of {@code o} flipped when {@code p} plays on {@code sq}; zero if the move is illegal. */
+    public static long flips(long p, long o, int sq) {
+        long m = 1L << sq;
+        long h = o & NOT_EDGE;
+        return flipLeft(p, h, m, 1) | flipRight(p, h, m, 1)
+             | flipLeft(p, o, m, 8) | flipRight(p, o, m, 8)
+             | flipLeft(p, h, m, 7) | flipRight(p, h, m, 7)
+             | flipLeft(p, h, m, 9) | flipRight(p, h, m, 9);
+    }
+
+    private static long flipLeft(long p, long mask, long m, int s) {
+        long f = 0, x = m << s;
+        while ((x & mask) != 0) { f |= x; x <<= s; }
+        return (x & p) != 0 ? f : 0;
+    }
+
+    private static long flipRight(long p, long mask, long m, int s) {
+        long f = 0, x = m >>> s;
+        while ((x & mask) != 0) { f |= x; x >>>= s; }
+        return (x & p) != 0 ? f : 0;
+    }
+}
@@ -0,0 +1,182 @@
+package othello.engine;
+
+import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Offline tool that writes an {@link OpeningBook} file.
+ * <pre>
+ *   BookBuilder games  &lt;transcripts&gt; &lt;out&gt; [plies=20] [minGames=2]
+ *   BookBuilder search &lt;out&gt; [plies=6] [depth=12]
+ * </pre>
+ * {@code games} reads one game per line as concatenated squares
+ * ({@code f5d6c3d3...}) and, for every position in the first {@code plies}
+ * moves, keeps the move with the best average final disc difference among
+ * moves played at least {@code minGames} times. {@code search} enumerates
+ * every position up to {@code plies} moves from the start and stores the
+ * engine's fixed-depth choice and score for each.
+ */
+public final class BookBuilder {
+
+    private BookBuilder() {}
+
+    /** Canonical (mover, opponent) pair. */
+    private static final class Key {
+        final long p, o;
+        Key(long p, long o) { this.p = p; this.o = o; }
+        static Key of(long p, long o) {
+            int s = Symmetry.canonical(p, o);
+            return new Key(Symmetry.apply(s, p), Symmetry.apply(s, o));
+        }
+        @Override public boolean equals(Object x) { return x instanceof Key && ((Key) x).p == p && ((Key) x).o == o; }
+        @Override public int hashCode() { return Long.hashCode(p * 0x9E3779B97F4A7C15L ^ o); }
+    }
+
+    private static final class Entry {
+        final Key key;
+        final int move, score;
+        Entry(Key key, int move, int score) { this.key = key; this.move = move; this.score = score; }
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length >= 3 && args[0].equals("games")) {
+            int plies = args.length > 3 ? Integer.parseInt(args[3]) : 20;
+            int minGames = args.length > 4 ? Integer.parseInt(args[4]) : 2;
+            write(Paths.get(args[2]), fromGames(Paths.get(args[1]), plies, minGames));
+        } else if (args.length >= 2 && args[0].equals("search")) {
+            int plies = args.length > 2 ? Integer.parseInt(args[2]) : 6;
+            int depth = args.length > 3 ? Integer.parseInt(args[3]) : 12;
+            write(Paths.get(args[1]), fromSearch(plies, depth));
+        } else {
+            System.err.println("usage: BookBuilder games <transcripts> <out> [plies] [minGames]");
+            System.err.println("       BookBuilder search <out> [plies] [depth]");
+            System.exit(2);
+        }
+    }
+
+    static List<Entry> fromGames(Path transcripts, int plies, int minGames) throws IOException {
+        // position -> move -> {games, sum of final disc difference for the mover}
+        Map<Key, Map<Integer, long[]>> stats = new HashMap<>();
+        int games = 0, skipped = 0;
+        try (BufferedReader in = Files.newBufferedReader(transcripts)) {
+            String line;
+            while ((line = in.readLine()) != null) {
+                int[] moves = parseMoves(line);
+                if (moves.length == 0) continue;
+                long[] mover = new long[moves.length], opp = new long[moves.length];
+                int[] color = new int[moves.length];
+                Position pos = Position.initial();
+                int player = Position.BLACK, n = 0;
+                for (int sq : moves) {
+                    if ((pos.moves(player) & (1L << sq)) == 0) player = 3 - player;
+                    if ((pos.moves(player) & (1L << sq)) == 0) break;
+                    mover[n] = pos.discs(player); opp[n] = pos.discs(3 - player); color[n] = player; n++;
+                    pos = pos.play(player, sq);
+                    player = 3 - player;
+                }
+                if (n < moves.length) { skipped++; continue; }
+                games++;
+                int blackDiff = pos.count(Position.BLACK) - pos.count(Position.WHITE);
+                for (int i = 0; i < Math.min(n, plies); i++) {
+                    int s = Symmetry.canonical(mover[i], opp[i]);
+                    Key key = new Key(Symmetry.apply(s, mover[i]), Symmetry.apply(s, opp[i]));
+                    long[] st = stats.computeIfAbsent(key, k -> new HashMap<>())
+                                     .computeIfAbsent(Symmetry.applySquare(s, moves[i]), k -> new long[2]);
+                    st[0]++;
+                    st[1] += color[i] == Position.BLACK ? blackDiff : -blackDiff;
+                }
+            }
+        }
+        List<Entry> out = new ArrayList<>();
+        for (Map.Entry<Key, Map<Integer, long[]>> e : stats.entrySet()) {
+            int bestMove = -1;
+            double bestMean = 0;
+            long bestCount = 0;
+            for (Map.Entry<Integer, long[]> m : e.getValue().entrySet()) {
+                long[] st = m.getValue();
+                if (st[0] < minGames) continue;
+                double mean = (double) st[1] / st[0];
+                if (bestMove < 0 || mean > bestMean || mean == bestMean && st[0] > bestCount) {
+                    bestMove = m.getKey(); bestMean = mean; bestCount = st[0];
+                }
+            }
+            if (bestMove >= 0) out.add(new Entry(e.getKey(), bestMove, (int) Math.round(bestMean)));
+        }
+        System.out.printf("%d games read, %d malformed, %d book positions%n", games, skipped, out.size());
+        return out;
+    }
+
+    static List<Entry> fromSearch(int plies, int depth) {
+        AIPlayer ai = new AIPlayer();
+        ai.maxDepth = depth;
+        ai.moveTimeMs = 24L * 3600 * 1000;
+        ai.endgameEmpties = 0;
+        Position start = Position.initial();
+        Set<Key> level = new HashSet<>();
+        level.add(Key.of(start.black, start.white));
+        List<Entry> out = new ArrayList<>();
+        for (int ply = 0; ply <= plies && !level.isEmpty(); ply++) {
+            long t = System.nanoTime();
+            Set<Key> next = new HashSet<>();
+            for (Key k : level) {
+                long moves = Bitboard.moves(k.p, k.o);
+                if (moves == 0) {
+                    if (Bitboard.moves(k.o, k.p) != 0 && ply < plies) next.add(Key.of(k.o, k.p));
+                    continue;
+                }
+                // Keys are colour-free: search them as BLACK to move
+                int move = ai.getBestMove(new Position(k.p, k.o), Position.BLACK);
+                out.add(new Entry(k, move, Math.max(Short.MIN_VALUE, Math.min(Short.MAX_VALUE, ai.lastScore))));
+                if (ply == plies) continue;
+                for (; moves != 0; moves &= moves - 1) {
+                    int sq = Long.numberOfTrailingZeros(moves);
+                    long f = Bitboard.flips(k.p, k.o, sq);
+                    next.add(Key.of(k.o & ~f, k.p | f | (1L << sq)));
+                }
+            }
+            System.out.printf("ply %d: %d positions searched in %.1f s%n", ply, level.size(), (System.nanoTime() - t) / 1e9);
+            level = next;
+        }
+        return out;
+    }
+
+    /** Moves of a transcript such as {@code f5d6c3}; whitespace is ignored, parsing stops at anything else. */
+    static int[] parseMoves(String line) {
+        String s = line.replaceAll("\\s+", "");
+        int[] moves = new int[s.length() / 2];
+        int n = 0;
+        for (int i = 0; i + 1 < s.length(); i += 2) {
+            int sq = Bitboard.parseSquare(s.substring(i, i + 2));
+            if (sq < 0) break;
+            moves[n++] = sq;
+        }
+        return n == moves.length ? moves : Arrays.copyOf(moves, n);
+    }
+
+    static void write(Path file, List<Entry> entries) throws IOException {
+        entries.sort((a, b) -> OpeningBook.compare(a.key.p, a.key.o, b.key.p, b.key.o));
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(file)))) {
+            out.writeInt(OpeningBook.MAGIC);
+            out.writeInt(entries.size());
+            for (Entry e : entries) {
+                out.writeLong(e.key.p);
+                out.writeLong(e.key.o);
+                out.writeShort(e.move);
+                out.writeShort(e.score);
+            }
+        }
+        System.out.printf("wrote %d entries to %s%n", entries.size(), file);
+    }
+}
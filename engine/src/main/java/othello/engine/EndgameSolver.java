@@ -0,0 +1,361 @@
+package othello.engine;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+
+/**
+ * Perfect-play endgame search on the final disc difference.
+ * <p>
+ * Scores are from the side to move's point of view, with empty squares
+ * going to the winner. {@link #solve} can search the exact score or only
+ * win/loss/draw (a null window around zero), which is much faster.
+ * <p>
+ * Ordering is endgame specific: with many empties, moves are tried
+ * fastest-first (fewest opponent replies), then odd-parity quadrants;
+ * closer to the end only quadrant parity is used. The last four squares
+ * are handled by dedicated code that tests the known empty squares
+ * directly instead of generating moves.
+ */
+public final class EndgameSolver {
+
+    private static final long[] QUADRANT = {
+        0x000000000F0F0F0FL, 0x00000000F0F0F0F0L, 0x0F0F0F0F00000000L, 0xF0F0F0F000000000L
+    };
+    /** Bit {@code 1 << quadrant} for every square. */
+    private static final int[] QUADRANT_BIT = new int[64];
+
+    /** Below this many empties the table costs more than it saves. */
+    private static final int HASH_MIN_EMPTIES = 10;
+    /** Below this many empties, parity ordering is cheaper than fastest-first. */
+    private static final int FASTEST_FIRST_MIN_EMPTIES = 7;
+    private static final int NO_SCORE = -100;
+
+    static {
+        for (int q = 0; q < 4; q++)
+            for (long m = QUADRANT[q]; m != 0; m &= m - 1) QUADRANT_BIT[Long.numberOfTrailingZeros(m)] = 1 << q;
+    }
+
+    /** Results of the last {@link #solve}. */
+    public int score;
+    public long nodes;
+    public long elapsedMs;
+    public boolean aborted;
+
+    private final TranspositionTable tt;
+    // Per-empties scratch for move ordering, so the search never allocates
+    private final int[][] moveBuf = new int[61][MoveOrder.MAX_MOVES];
+    private final int[][] orderBuf = new int[61][MoveOrder.MAX_MOVES];
+    private final long[][] flipBuf = new long[61][MoveOrder.MAX_MOVES];
+    private volatile long deadline;
+    private boolean abort;
+
+    public EndgameSolver(int ttBits) {
+        tt = new TranspositionTable(ttBits);
+    }
+
+    public void newGame() { tt.clear(); }
+
+    /**
+     * Solves the position with {@code p} to move and returns its best move
+     * ({@code -1} if {@code p} must pass). With {@code exact == false} only
+     * the sign of {@link #score} is meaningful. If {@code deadlineNanos}
+     * passes first, {@link #aborted} is set and the result must be ignored.
+     */
+    public int solve(long p, long o, boolean exact, long deadlineNanos) {
+        deadline = deadlineNanos;
+        return solve(p, o, exact);
+    }
+
+    /** Solves against the deadline last given to {@link #setDeadline}, which may move while the solve runs. */
+    int solve(long p, long o, boolean exact) {
+        long start = System.nanoTime();
+        nodes = 0; abort = false;
+        tt.newSearch();
+        int empties = 64 - Long.bitCount(p | o);
+        int parity = parity(~(p | o));
+        int alpha = exact ? -65 : -1, beta = exact ? 65 : 1;
+
+        int best = -1, bestScore = NO_SCORE;
+        long moves = Bitboard.moves(p, o);
+        if (moves == 0) {
+            bestScore = search(p, o, alpha, beta, empties, parity);
+        } else {
+            int n = order(p, o, moves, empties, parity, -1);
+            int[] list = moveBuf[empties];
+            for (int i = 0; i < n; i++) {
+                int sq = list[i];
+                long f = flipBuf[empties][i];
+                int v = -search(o & ~f, p | f | (1L << sq), -beta, -alpha, empties - 1, parity ^ QUADRANT_BIT[sq]);
+                if (abort) break;
+                if (v > bestScore) { bestScore = v; best = sq; }
+                if (v > alpha) alpha = v;
+                if (alpha >= beta) break;
+            }
+        }
+        aborted = abort;
+        score = exact ? bestScore : Integer.signum(bestScore);
+        elapsedMs = (System.nanoTime() - start) / 1_000_000;
+        return best;
+    }
+
+    /** Moves the deadline; may be called from another thread, e.g. to stop a pondering solve. */
+    void setDeadline(long deadlineNanos) { deadline = deadlineNanos; }
+
+    private int search(long p, long o, int alpha, int beta, int empties, int parity) {
+        if ((++nodes & 4095) == 0 && System.nanoTime() >= deadline) abort = true;
+        if (abort) return 0;
+        if (empties <= 4) return lastSquares(p, o, alpha, beta, empties, parity);
+
+        long moves = Bitboard.moves(p, o);
+        if (moves == 0) {
+            if (Bitboard.moves(o, p) == 0) return finalScore(p, o, empties);
+            return -search(o, p, -beta, -alpha, empties, parity);
+        }
+
+        long key = 0;
+        int ttMove = -1;
+        if (empties >= HASH_MIN_EMPTIES) {
+            key = hash(p, o);
+            long entry = tt.probe(key);
+            if (entry != 0) {
+                ttMove = TranspositionTable.move(entry);
+                int s = TranspositionTable.score(entry);
+                switch (TranspositionTable.bound(entry)) {
+                    case TranspositionTable.EXACT: return s;
+                    case TranspositionTable.LOWER: if (s > alpha) alpha = s; break;
+                    default: if (s < beta) beta = s; break;
+                }
+                if (alpha >= beta) return s;
+            }
+        }
+        // The stored bound is relative to the window searched, which the table may have narrowed
+        int alpha0 = alpha;
+
+        int best = NO_SCORE, bestSq = -1;
+        if (empties >= FASTEST_FIRST_MIN_EMPTIES) {
+            int n = order(p, o, moves, empties, parity, ttMove);
+            int[] list = moveBuf[empties];
+            long[] flips = flipBuf[empties];
+            for (int i = 0; i < n; i++) {
+                int sq = list[i];
+                long f = flips[i];
+                int v = -search(o & ~f, p | f | (1L << sq), -beta, -alpha, empties - 1, parity ^ QUADRANT_BIT[sq]);
+                if (v > best) {
+                    best = v; bestSq = sq;
+                    if (v > alpha) { alpha = v; if (alpha >= beta) break; }
+                }
+            }
+        } else {
+            // Odd quadrants first: the side to move there is likely to get the last move
+            long odd = oddMask(parity);
+            for (int pass = 0; pass < 2 && alpha < beta; pass++) {
+                for (long m = moves & (pass == 0 ? odd : ~odd); m != 0; m &= m - 1) {
+                    int sq = Long.numberOfTrailingZeros(m);
+                    long f = Bitboard.flips(p, o, sq);
+                    int v = -search(o & ~f, p | f | (1L << sq), -beta, -alpha, empties - 1, parity ^ QUADRANT_BIT[sq]);
+                    if (v > best) {
+                        best = v; bestSq = sq;
+                        if (v > alpha) { alpha = v; if (alpha >= beta) break; }
+                    }
+                }
+            }
+        }
+        if (abort) return 0;
+        if (empties >= HASH_MIN_EMPTIES) {
+            int bound = best <= alpha0 ? TranspositionTable.UPPER : best >= beta ? TranspositionTable.LOWER : TranspositionTable.EXACT;
+            tt.store(key, empties, bound, best, bestSq);
+        }
+        return best;
+    }
+
+    /**
+     * Fills the scratch buffers for {@code empties} with the legal moves,
+     * hash move first, then by fewest opponent replies with a bonus for odd
+     * quadrants. Returns the number of moves.
+     */
+    private int order(long p, long o, long moves, int empties, int parity, int ttMove) {
+        int[] list = moveBuf[empties], keys = orderBuf[empties];
+        long[] flips = flipBuf[empties];
+        int n = 0;
+        for (; moves != 0; moves &= moves - 1) {
+            int sq = Long.numberOfTrailingZeros(moves);
+            long f = Bitboard.flips(p, o, sq);
+            long np = p | f | (1L << sq), no = o & ~f;
+            int k = Long.bitCount(Bitboard.moves(no, np)) * 4 - ((parity & QUADRANT_BIT[sq]) != 0 ? 1 : 0);
+            if (sq == ttMove) k = Integer.MIN_VALUE;
+            // Insertion sort: move lists are short
+            int j = n++;
+            while (j > 0 && keys[j - 1] > k) { list[j] = list[j - 1]; keys[j] = keys[j - 1]; flips[j] = flips[j - 1]; j--; }
+            list[j] = sq; keys[j] = k; flips[j] = f;
+        }
+        return n;
+    }
+
+    /** Dispatches to the specialised last-1..4 code with the empties in parity order. */
+    private int lastSquares(long p, long o, int alpha, int beta, int empties, int parity) {
+        long empty = ~(p | o), odd = oddMask(parity);
+        int s1 = 0, s2 = 0, s3 = 0, s4 = 0, k = 0;
+        for (int pass = 0; pass < 2; pass++) {
+            for (long m = empty & (pass == 0 ? odd : ~odd); m != 0; m &= m - 1) {
+                int sq = Long.numberOfTrailingZeros(m);
+                switch (k++) {
+                    case 0: s1 = sq; break;
+                    case 1: s2 = sq; break;
+                    case 2: s3 = sq; break;
+                    default: s4 = sq; break;
+                }
+            }
+        }
+        switch (empties) {
+            case 4: return last4(p, o, alpha, beta, s1, s2, s3, s4);
+            case 3: return last3(p, o, alpha, beta, s1, s2, s3);
+            case 2: return last2(p, o, alpha, beta, s1, s2);
+            case 1: return last1(p, o, s1);
+            default: return finalScore(p, o, 0);
+        }
+    }
+
+    private int last4(long p, long o, int alpha, int beta, int s1, int s2, int s3, int s4) {
+        nodes++;
+        int best = NO_SCORE, v;
+        long f;
+        if ((f = Bitboard.flips(p, o, s1)) != 0) {
+            v = -last3(o & ~f, p | f | (1L << s1), -beta, -alpha, s2, s3, s4);
+            if (v > best) { best = v; if (v >= beta) return v; if (v > alpha) alpha = v; }
+        }
+        if ((f = Bitboard.flips(p, o, s2)) != 0) {
+            v = -last3(o & ~f, p | f | (1L << s2), -beta, -alpha, s1, s3, s4);
+            if (v > best) { best = v; if (v >= beta) return v; if (v > alpha) alpha = v; }
+        }
+        if ((f = Bitboard.flips(p, o, s3)) != 0) {
+            v = -last3(o & ~f, p | f | (1L << s3), -beta, -alpha, s1, s2, s4);
+            if (v > best) { best = v; if (v >= beta) return v; if (v > alpha) alpha = v; }
+        }
+        if ((f = Bitboard.flips(p, o, s4)) != 0) {
+            v = -last3(o & ~f, p | f | (1L << s4), -beta, -alpha, s1, s2, s3);
+            if (v > best) best = v;
+        }
+        if (best != NO_SCORE) return best;
+        if (Bitboard.moves(o, p) == 0) return finalScore(p, o, 4);
+        return -last4(o, p, -beta, -alpha, s1, s2, s3, s4);
+    }
+
+    private int last3(long p, long o, int alpha, int beta, int s1, int s2, int s3) {
+        nodes++;
+        int best = NO_SCORE, v;
+        long f;
+        if ((f = Bitboard.flips(p, o, s1)) != 0) {
+            v = -last2(o & ~f, p | f | (1L << s1), -beta, -alpha, s2, s3);
+            if (v > best) { best = v; if (v >= beta) return v; if (v > alpha) alpha = v; }
+        }
+        if ((f = Bitboard.flips(p, o, s2)) != 0) {
+            v = -last2(o & ~f, p | f | (1L << s2), -beta, -alpha, s1, s3);
+            if (v > best) { best = v; if (v >= beta) return v; if (v > alpha) alpha = v; }
+        }
+        if ((f = Bitboard.flips(p, o, s3)) != 0) {
+            v = -last2(o & ~f, p | f | (1L << s3), -beta, -alpha, s1, s2);
+            if (v > best) best = v;
+        }
+        if (best != NO_SCORE) return best;
+        if (Bitboard.moves(o, p) == 0) return finalScore(p, o, 3);
+        return -last3(o, p, -beta, -alpha, s1, s2, s3);
+    }
+
+    private int last2(long p, long o, int alpha, int beta, int s1, int s2) {
+        nodes++;
+        int best = NO_SCORE, v;
+        long f;
+        if ((f = Bitboard.flips(p, o, s1)) != 0) {
+            v = -last1(o & ~f, p | f | (1L << s1), s2);
+            if (v > best) { best = v; if (v >= beta) return v; }
+        }
+        if ((f = Bitboard.flips(p, o, s2)) != 0) {
+            v = -last1(o & ~f, p | f | (1L << s2), s1);
+            if (v > best) best = v;
+        }
+        if (best != NO_SCORE) return best;
+        if (Bitboard.moves(o, p) == 0) return finalScore(p, o, 2);
+        return -last2(o, p, -beta, -alpha, s1, s2);
+    }
+
+    /** Exact score with one empty square: whoever can play it does, else the game just ends. */
+    private int last1(long p, long o, int sq) {
+        nodes++;
+        int pc = Long.bitCount(p), oc = Long.bitCount(o);
+        int n = Long.bitCount(Bitboard.flips(p, o, sq));
+        if (n > 0) return (pc + n + 1) - (oc - n);
+        n = Long.bitCount(Bitboard.flips(o, p, sq));
+        if (n > 0) return (pc - n) - (oc + n + 1);
+        return finalScore(p, o, 1);
+    }
+
+    /** Disc difference of a finished game, empties credited to the winner. */
+    static int finalScore(long p, long o, int empties) {
+        int diff = Long.bitCount(p) - Long.bitCount(o);
+        return diff > 0 ? diff + empties : diff < 0 ? diff - empties : 0;
+    }
+
+    private static int parity(long empty) {
+        int parity = 0;
+        for (int q = 0; q < 4; q++) if ((Long.bitCount(empty & QUADRANT[q]) & 1) != 0) parity |= 1 << q;
+        return parity;
+    }
+
+    private static long oddMask(int parity) {
+        long m = 0;
+        for (int q = 0; q < 4; q++) if ((parity & (1 << q)) != 0) m |= QUADRANT[q];
+        return m;
+    }
+
+    private static long hash(long p, long o) {
+        long h = p * 0x9E3779B97F4A7C15L ^ Long.rotateLeft(o * 0xC2B2AE3D27D4EB4FL, 31);
+        return h ^ (h >>> 29);
+    }
+
+    /**
+     * Solves every position in a file and reports move, score, nodes and
+     * time. Each line is a 64-square board string (see {@link Position#parse}),
+     * the side to move ({@code X} or {@code O}) and optionally the known
+     * score, which is checked. Lines starting with {@code #} are skipped.
+     * <p>
+     * Usage: {@code java othello.engine.EndgameSolver positions.txt [wld]}
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length < 1) {
+            System.err.println("usage: EndgameSolver <positions file> [wld]");
+            System.exit(2);
+        }
+        boolean exact = args.length < 2 || !args[1].equalsIgnoreCase("wld");
+        EndgameSolver solver = new EndgameSolver(22);
+        int solved = 0, wrong = 0;
+        long totalMs = 0;
+        try (BufferedReader in = Files.newBufferedReader(Paths.get(args[0]))) {
+            String line;
+            while ((line = in.readLine()) != null) {
+                line = line.trim();
+                if (line.isEmpty() || line.startsWith("#")) continue;
+                String[] f = line.split("\\s+");
+                Position pos = Position.parse(f[0]);
+                boolean blackToMove = f.length < 2 || f[1].equalsIgnoreCase("X") || f[1].equals("*");
+                long p = blackToMove ? pos.black : pos.white, o = blackToMove ? pos.white : pos.black;
+                solver.newGame();
+                int move = solver.solve(p, o, exact, Long.MAX_VALUE);
+                String check = "";
+                if (f.length > 2) {
+                    int expected = Integer.parseInt(f[2].replace("+", ""));
+                    boolean ok = exact ? expected == solver.score : Integer.signum(expected) == solver.score;
+                    if (!ok) wrong++;
+                    check = ok ? "  ok" : "  MISMATCH (expected " + f[2] + ")";
+                }
+                solved++;
+                totalMs += solver.elapsedMs;
+                System.out.printf("%2d empties  %-4s %+3d  %,12d nodes  %6d ms%s%n", pos.empties(),
+                    move < 0 ? "pass" : Bitboard.name(move), solver.score, solver.nodes, solver.elapsedMs, check);
+            }
+        }
+        System.out.printf("%d positions, %d ms total, %d mismatches%n", solved, totalMs, wrong);
+        if (wrong > 0) System.exit(1);
+    }
+}
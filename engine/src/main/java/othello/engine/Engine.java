@@ -0,0 +1,37 @@
+package othello.engine;
+
+import java.util.function.ObjIntConsumer;
+
+/**
+ * What a front end needs from a move-choosing engine: {@link AIPlayer}
+ * (alpha-beta) or {@link MctsPlayer} (Monte Carlo tree search). Calls
+ * other than {@link #cancel} come from one thread at a time.
+ */
+public interface Engine {
+
+    /** Best move for {@code player} in {@code pos}, or {@code -1} to pass. */
+    int getBestMove(Position pos, int player);
+
+    /** What the last {@link #getBestMove} did; overwritten by the next one. */
+    SearchStats stats();
+
+    /** Expected line of the last {@link #getBestMove}, starting with its move; may hold only that move. */
+    int[] pv();
+
+    /** Forgets everything learned from the previous game. */
+    void newGame();
+
+    /**
+     * Makes the running search return as soon as possible, and every later
+     * one too until {@link #clearCancel}. Safe to call from any thread.
+     */
+    void cancel();
+
+    void clearCancel();
+
+    /** Starts thinking about the position after the predicted reply; engines that cannot return false. */
+    default boolean ponder(Position pos, int opponent) { return false; }
+
+    /** Scores every legal move with increasing effort until cancelled (see {@link AIPlayer#analyze}); optional. */
+    default void analyze(Position pos, int player, ObjIntConsumer<int[]> onDepth) {}
+}
@@ -0,0 +1,103 @@
+package othello.engine;
+
+import java.nio.file.Paths;
+
+/**
+ * A named set of engine settings, written on the command line as
+ * {@code name:key=value,key=value}, for example
+ * {@code fast:time=50,endgame=14}. Keys: {@code engine} ({@code minimax},
+ * the default, or {@code mcts}), {@code time} (ms per move),
+ * {@code threads}; for minimax {@code depth}, {@code endgame} (empties),
+ * {@code wld} (true/false), {@code tt} (table bits), {@code book} (path),
+ * {@code eval} (pattern file), {@code mpc} ({@link ProbCut} table),
+ * {@code selectivity} (ProbCut confidence, 0 for off); for MCTS {@code playouts} (limit per move)
+ * and {@code weighted} (true/false).
+ * Anything not given keeps the engine's default, except
+ * {@code threads}, which defaults to 1 so games can run side by side.
+ */
+public final class EngineConfig {
+
+    public final String name;
+    boolean mcts;
+    long timeMs = 1000;
+    int depth = 60;
+    int threads = 1;
+    int endgame = -1;
+    boolean wld;
+    int ttBits = 18;
+    String book;
+    String eval;
+    String mpc;
+    double selectivity = -1;
+    long playouts = Long.MAX_VALUE;
+    boolean weighted = true;
+
+    private EngineConfig(String name) { this.name = name; }
+
+    public static EngineConfig parse(String spec) {
+        int colon = spec.indexOf(':');
+        EngineConfig c = new EngineConfig(colon < 0 ? spec : spec.substring(0, colon));
+        if (colon < 0) return c;
+        for (String kv : spec.substring(colon + 1).split(",")) {
+            if (kv.isEmpty()) continue;
+            int eq = kv.indexOf('=');
+            if (eq < 0) throw new IllegalArgumentException("expected key=value in " + spec + ": " + kv);
+            String k = kv.substring(0, eq), v = kv.substring(eq + 1);
+            switch (k) {
+                case "engine":
+                    if (!v.equals("mcts") && !v.equals("minimax")) throw new IllegalArgumentException("unknown engine '" + v + "' in " + spec);
+                    c.mcts = v.equals("mcts");
+                    break;
+                case "time": c.timeMs = Long.parseLong(v); break;
+                case "depth": c.depth = Integer.parseInt(v); break;
+                case "threads": c.threads = Integer.parseInt(v); break;
+                case "endgame": c.endgame = Integer.parseInt(v); break;
+                case "wld": c.wld = Boolean.parseBoolean(v); break;
+                case "tt": c.ttBits = Integer.parseInt(v); break;
+                case "book": c.book = v; break;
+                case "eval": c.eval = v; break;
+                case "mpc": c.mpc = v; break;
+                case "selectivity": c.selectivity = Double.parseDouble(v); break;
+                case "playouts": c.playouts = Long.parseLong(v); break;
+                case "weighted": c.weighted = Boolean.parseBoolean(v); break;
+                default: throw new IllegalArgumentException("unknown engine setting '" + k + "' in " + spec);
+            }
+        }
+        return c;
+    }
+
+    /** A fresh engine with these settings; each thread needs its own. */
+    public Engine create() {
+        if (!mcts) return createMinimax();
+        MctsPlayer m = new MctsPlayer();
+        m.moveTimeMs = timeMs;
+        m.threads = threads;
+        m.maxPlayouts = playouts;
+        m.weighted = weighted;
+        return m;
+    }
+
+    /** {@link #create} for tools that need the alpha-beta engine itself. */
+    AIPlayer createMinimax() {
+        if (mcts) throw new IllegalArgumentException(name + ": this tool needs the minimax engine");
+        AIPlayer ai = new AIPlayer(ttBits);
+        ai.moveTimeMs = timeMs;
+        ai.maxDepth = depth;
+        ai.threads = threads;
+        if (endgame >= 0) ai.endgameEmpties = endgame;
+        ai.endgameExact = !wld;
+        if (book != null) ai.book = OpeningBook.openIfExists(Paths.get(book));
+        if (eval != null) {
+            ai.patterns = PatternEvaluator.openIfExists(Paths.get(eval));
+            if (ai.patterns == null) throw new IllegalArgumentException("cannot load pattern file " + eval);
+        }
+        if (mpc != null) {
+            ai.probCut = ProbCut.openIfExists(Paths.get(mpc));
+            if (ai.probCut == null) throw new IllegalArgumentException("cannot load ProbCut table " + mpc);
+        }
+        if (selectivity >= 0) ai.selectivity = selectivity;
+        return ai;
+    }
+
+    @Override public String toString() { return name; }
+}
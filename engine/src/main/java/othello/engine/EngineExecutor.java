@@ -0,0 +1,201 @@
+package othello.engine;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+
+/**
+ * Runs all work for one {@link Engine} on a single engine thread, so a
+ * UI never has to touch the player or start threads itself.
+ * <p>
+ * Requests search an immutable {@link Position} snapshot. Each new
+ * request supersedes the ones before it: a running search is cancelled,
+ * queued ones are skipped, and a finished one is never delivered.
+ * Pondering survives a new request, which is what makes a ponder hit
+ * possible; {@link #cancel} and {@link #newGame} stop it as well.
+ * <p>
+ * Results reach the caller as one immutable {@link Result} through the
+ * {@code publisher} given at construction (e.g.
+ * {@code SwingUtilities::invokeLater}). The staleness check runs on the
+ * publisher too, so a caller that also issues its requests from there
+ * never sees a result of a request it superseded.
+ */
+public final class EngineExecutor implements AutoCloseable {
+
+    /** Everything one search produced, captured on the engine thread. */
+    public static final class Result {
+        public final Position position;
+        public final int player;
+        /** Square to play, or {@code -1} for a pass. */
+        public final int move;
+        public final int score, depth;
+        /** See {@link Engine#pv}. */
+        public final int[] pv;
+        /** {@link SearchStats#toString()} of the search. */
+        public final String stats;
+
+        Result(Position position, int player, int move, Engine ai) {
+            this.position = position;
+            this.player = player;
+            this.move = move;
+            this.score = ai.stats().score;
+            this.depth = ai.stats().depth;
+            this.pv = ai.pv().clone();
+            this.stats = ai.stats().toString();
+        }
+    }
+
+    /** Scores of every legal move at one depth of {@link #analyze}. */
+    public static final class Analysis {
+        public final Position position;
+        public final int player, depth;
+        /** Best square, the first one on a tie. */
+        public final int best;
+        /** By square; {@link AIPlayer#NO_SCORE} where there is no move. */
+        public final int[] scores;
+        /**
+         * By square, for display: the final margin of a proven result
+         * ({@code W+12}, {@code L-4}), otherwise the evaluation (in discs
+         * when a pattern file is loaded); {@code null} where there is no move.
+         */
+        public final String[] labels = new String[64];
+
+        Analysis(Position position, int player, int depth, int[] scores, boolean discs) {
+            this.position = position;
+            this.player = player;
+            this.depth = depth;
+            this.scores = scores;
+            int b = -1;
+            for (int sq = 0; sq < 64; sq++) {
+                int s = scores[sq];
+                if (s == AIPlayer.NO_SCORE) continue;
+                if (b < 0 || s > scores[b]) b = sq;
+                labels[sq] = s >= Evaluator.WIN ? "W+" + (s - Evaluator.WIN)
+                           : s <= -Evaluator.WIN ? "L" + (s + Evaluator.WIN)
+                           : (s > 0 ? "+" : "") + (discs ? Math.round((float) s / PatternEvaluator.SCALE) : s);
+            }
+            best = b;
+        }
+    }
+
+    private final Engine ai;
+    private final Executor publisher;
+    private final ExecutorService thread;
+    /** Bumped by every request; work tagged with an older value is stale. */
+    private final AtomicLong generation = new AtomicLong();
+    /** Generation of the search request on the engine thread, 0 when none. */
+    private volatile long running;
+    /** Generation of the last {@link #analyze} request, 0 when none. */
+    private volatile long analyzing;
+
+    public EngineExecutor(Engine ai, Executor publisher) {
+        this.ai = ai;
+        this.publisher = publisher;
+        thread = Executors.newSingleThreadExecutor(r -> {
+            Thread t = new Thread(r, "othello-engine");
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    /** Searches {@code pos} for {@code player}, superseding any earlier request. */
+    public void search(Position pos, int player, Consumer<Result> onResult) {
+        long gen = supersede(false);
+        thread.execute(() -> {
+            running = gen;
+            int move;
+            try {
+                if (!begin(gen)) return;
+                move = ai.getBestMove(pos, player);
+            } finally {
+                running = 0;
+            }
+            Result r = new Result(pos, player, move, ai);
+            publisher.execute(() -> {
+                if (generation.get() == gen) onResult.accept(r);
+            });
+        });
+    }
+
+    /**
+     * Scores every move of {@code player} in {@code pos} with increasing
+     * depth (see {@link AIPlayer#analyze}) until superseded, reporting
+     * after each depth. Updates are coalesced: while one waits on the
+     * publisher, newer ones replace it instead of queueing behind it.
+     */
+    public void analyze(Position pos, int player, Consumer<Analysis> onUpdate) {
+        long gen = supersede(false);
+        analyzing = gen;
+        AtomicReference<Analysis> latest = new AtomicReference<>();
+        thread.execute(() -> {
+            running = gen;
+            try {
+                if (!begin(gen)) return;
+                boolean discs = ai instanceof AIPlayer && ((AIPlayer) ai).patterns != null;
+                ai.analyze(pos, player, (scores, depth) -> {
+                    if (latest.getAndSet(new Analysis(pos, player, depth, scores, discs)) != null) return;
+                    publisher.execute(() -> {
+                        Analysis a = latest.getAndSet(null);
+                        if (generation.get() == gen) onUpdate.accept(a);
+                    });
+                });
+            } finally {
+                running = 0;
+            }
+        });
+    }
+
+    /** Ponders (see {@link Engine#ponder}) until the next request; it does not supersede anything. */
+    public void ponder(Position pos, int opponent) {
+        long gen = generation.get();
+        thread.execute(() -> {
+            if (begin(gen)) ai.ponder(pos, opponent);
+        });
+    }
+
+    /** Drops the current request and any pondering. */
+    public void cancel() { supersede(true); }
+
+    /** Drops the current request only if it is an {@link #analyze}; a search made since is left to finish. */
+    public void cancelAnalysis() {
+        long gen = analyzing;
+        if (gen != 0 && generation.get() == gen) supersede(false);
+    }
+
+    /** Cancels everything and clears the player's tables for a new game. */
+    public void newGame() {
+        supersede(true);
+        thread.execute(() -> {
+            ai.clearCancel();
+            ai.newGame();
+        });
+    }
+
+    @Override
+    public void close() {
+        supersede(true);
+        thread.shutdown();
+    }
+
+    /** {@code all}: also stop pondering, not only a running search request. */
+    private long supersede(boolean all) {
+        long gen = generation.incrementAndGet();
+        if (all || running != 0) ai.cancel();
+        return gen;
+    }
+
+    /**
+     * Clears the cancel flag, then checks the request is still current.
+     * {@code running} is set before this and {@code generation} bumped
+     * before it is read, so a request superseded at any moment is either
+     * skipped here or cancelled again by the {@link Engine#cancel} that
+     * follows.
+     */
+    private boolean begin(long gen) {
+        ai.clearCancel();
+        return generation.get() == gen;
+    }
+}
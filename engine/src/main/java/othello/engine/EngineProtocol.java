@@ -0,0 +1,301 @@
+package othello.engine;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * One game session driven by a line-based text protocol, GTP style: every
+ * command gets {@code = result} or {@code ? error}, then an empty line.
+ * <pre>
+ *   name                          engine name
+ *   new                           initial position, BLACK to move
+ *   set position &lt;64 squares&gt; X|O  any position ({@link Position#parse}), side to move
+ *   set time|depth|endgame &lt;n&gt;    ms per move, depth limit, solver empties
+ *   play &lt;move&gt;...                 moves for the side to move, e.g. {@code play f5 d6}
+ *   genmove                       searches, plays and returns the move and score
+ *   analyse [depth]               {@code info depth d move score...} lines, best first,
+ *                                 until the depth or the move time is reached
+ *   show                          board, side to move and disc counts
+ *   stats                         this session's move count and latencies
+ *   quit
+ * </pre>
+ * Forced passes are played automatically. Scores are in engine units for
+ * the side to move ({@link Evaluator#WIN} plus the margin for a proven win).
+ * <p>
+ * Searches do not run on the session's thread but on a shared, bounded
+ * {@link Engines} pool; the session waits for them, so many sessions can
+ * share a few cores. Run standalone it speaks on stdin/stdout with one
+ * engine using every core; {@link EngineServer} hosts many sessions.
+ */
+public final class EngineProtocol {
+
+    /** A fixed pool of engine threads, each with its own {@link AIPlayer}. */
+    static final class Engines implements AutoCloseable {
+        final ExecutorService pool;
+        final ThreadLocal<AIPlayer> players;
+        /** Ends analyses that run out of time. */
+        final ScheduledExecutorService timer;
+
+        Engines(int workers, int searchThreads, int ttBits) {
+            AtomicInteger n = new AtomicInteger();
+            pool = Executors.newFixedThreadPool(workers, r -> {
+                Thread t = new Thread(r, "othello-engine-" + n.incrementAndGet());
+                t.setDaemon(true);
+                return t;
+            });
+            players = ThreadLocal.withInitial(() -> {
+                AIPlayer ai = new AIPlayer(ttBits);
+                ai.threads = searchThreads;
+                return ai;
+            });
+            timer = Executors.newSingleThreadScheduledExecutor(r -> {
+                Thread t = new Thread(r, "othello-engine-timer");
+                t.setDaemon(true);
+                return t;
+            });
+        }
+
+        @Override public void close() {
+            pool.shutdownNow();
+            timer.shutdownNow();
+        }
+    }
+
+    private final Engines engines;
+    private final BufferedReader in;
+    private final Writer out;
+    private Game game = new Game();
+    private long timeMs = 1000;
+    private int depth = 60;
+    // Same default as AIPlayer; the players are shared, so every search sets it again
+    private int endgame = Integer.getInteger("othello.endgame", 18);
+
+    /** Per genmove: time queued for an engine thread and time searching, in nanoseconds. */
+    private long[] waitNanos = new long[64], searchNanos = new long[64];
+    private int moves;
+
+    EngineProtocol(Engines engines, BufferedReader in, Writer out) {
+        this.engines = engines;
+        this.in = in;
+        this.out = out;
+    }
+
+    public static void main(String[] args) throws IOException {
+        int ttBits = args.length > 0 ? Integer.parseInt(args[0]) : 20;
+        try (Engines e = new Engines(1, Runtime.getRuntime().availableProcessors(), ttBits)) {
+            new EngineProtocol(e,
+                new BufferedReader(new InputStreamReader(System.in, StandardCharsets.US_ASCII)),
+                new BufferedWriter(new OutputStreamWriter(System.out, StandardCharsets.US_ASCII))).run();
+        }
+    }
+
+    /** Serves commands until {@code quit} or end of input. */
+    void run() throws IOException {
+        for (String line; (line = in.readLine()) != null; ) {
+            line = line.trim();
+            if (line.isEmpty() || line.startsWith("#")) continue;
+            boolean more;
+            try {
+                more = handle(line.split("\\s+"));
+            } catch (IllegalArgumentException | IllegalStateException e) {
+                // A bad command or a failed search ends only that command, not the session
+                reply('?', e.getMessage());
+                more = true;
+            }
+            if (!more) return;
+        }
+    }
+
+    private boolean handle(String[] cmd) throws IOException {
+        switch (cmd[0]) {
+            case "name": reply('=', "othello"); break;
+            case "new":
+                game = new Game();
+                reply('=', "");
+                break;
+            case "set": set(cmd); break;
+            case "play":
+                for (int i = 1; i < cmd.length; i++) {
+                    int sq = Bitboard.parseSquare(cmd[i]);
+                    if (game.isOver()) throw new IllegalArgumentException("game over");
+                    if (!game.isValidMove(sq)) throw new IllegalArgumentException("illegal move " + cmd[i]);
+                    game.play(sq);
+                }
+                reply('=', "");
+                break;
+            case "genmove": genmove(); break;
+            case "analyse":
+            case "analyze": analyse(cmd.length > 1 ? Integer.parseInt(cmd[1]) : Math.min(depth, 60)); break;
+            case "show": reply('=', show()); break;
+            case "stats": reply('=', stats()); break;
+            case "quit":
+                reply('=', "");
+                return false;
+            default: throw new IllegalArgumentException("unknown command " + cmd[0]);
+        }
+        return true;
+    }
+
+    private void set(String[] cmd) throws IOException {
+        if (cmd.length < 3) throw new IllegalArgumentException("usage: set position|time|depth|endgame <value>");
+        switch (cmd[1]) {
+            case "position":
+                if (cmd.length < 4) throw new IllegalArgumentException("usage: set position <64 squares> X|O");
+                game = new Game(Position.parse(cmd[2]), cmd[3].equalsIgnoreCase("O") ? Position.WHITE : Position.BLACK);
+                break;
+            case "time": timeMs = Math.max(1, Long.parseLong(cmd[2])); break;
+            case "depth": depth = Math.max(1, Integer.parseInt(cmd[2])); break;
+            case "endgame": endgame = Integer.parseInt(cmd[2]); break;
+            default: throw new IllegalArgumentException("unknown setting " + cmd[1]);
+        }
+        reply('=', "");
+    }
+
+    private void genmove() throws IOException {
+        if (game.isOver()) throw new IllegalArgumentException("game over");
+        Position pos = game.position();
+        int player = game.toMove();
+        long queued = System.nanoTime();
+        long[] r = await(engines.pool.submit(() -> {
+            long started = System.nanoTime();
+            AIPlayer ai = player();
+            int sq = ai.getBestMove(pos, player);
+            return new long[] {sq, ai.lastScore, started, System.nanoTime()};
+        }));
+        if (moves == waitNanos.length) {
+            waitNanos = Arrays.copyOf(waitNanos, 2 * moves);
+            searchNanos = Arrays.copyOf(searchNanos, 2 * moves);
+        }
+        waitNanos[moves] = r[2] - queued;
+        searchNanos[moves++] = r[3] - r[2];
+        int sq = (int) r[0];
+        game.play(sq);
+        reply('=', Bitboard.name(sq) + " " + r[1]);
+    }
+
+    /**
+     * Info lines are handed over through a queue and written here, so a
+     * slow client never holds up an engine thread.
+     */
+    private void analyse(int maxDepth) throws IOException {
+        if (game.isOver()) throw new IllegalArgumentException("game over");
+        Position pos = game.position();
+        int player = game.toMove();
+        BlockingQueue<String> info = new LinkedBlockingQueue<>();
+        int[] best = {-1, 0};
+        Future<?> f = engines.pool.submit(() -> {
+            AIPlayer ai = player();
+            ai.maxDepth = maxDepth;
+            AtomicBoolean done = new AtomicBoolean();
+            ai.clearCancel();
+            ScheduledFuture<?> stop = engines.timer.schedule(() -> {
+                // Never cancel the next request on this thread
+                synchronized (done) { if (!done.get()) ai.cancel(); }
+            }, timeMs, TimeUnit.MILLISECONDS);
+            try {
+                ai.analyze(pos, player, (scores, d) -> info.add(infoLine(scores, d, best)));
+            } finally {
+                synchronized (done) { done.set(true); }
+                stop.cancel(false);
+                ai.clearCancel();
+            }
+            return null;
+        });
+        try {
+            while (!f.isDone() || !info.isEmpty()) {
+                String line = info.poll(20, TimeUnit.MILLISECONDS);
+                if (line != null) { out.write(line); out.write('\n'); out.flush(); }
+            }
+        } catch (InterruptedException e) {
+            f.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new IOException("interrupted", e);
+        }
+        await(f);
+        reply('=', best[0] < 0 ? "" : Bitboard.name(best[0]) + " " + best[1]);
+    }
+
+    /** Scores best first; also records the best move and score in {@code best}. */
+    private static String infoLine(int[] scores, int d, int[] best) {
+        Integer[] sq = new Integer[64];
+        int n = 0;
+        for (int s = 0; s < 64; s++) if (scores[s] != AIPlayer.NO_SCORE) sq[n++] = s;
+        Arrays.sort(sq, 0, n, (a, b) -> Integer.compare(scores[b], scores[a]));
+        StringBuilder sb = new StringBuilder("info depth ").append(d);
+        for (int i = 0; i < n; i++) sb.append(' ').append(Bitboard.name(sq[i])).append(' ').append(scores[sq[i]]);
+        best[0] = sq[0];
+        best[1] = scores[sq[0]];
+        return sb.toString();
+    }
+
+    /** The engine thread's player, set up with this session's settings. */
+    private AIPlayer player() {
+        AIPlayer ai = engines.players.get();
+        ai.moveTimeMs = timeMs;
+        ai.maxDepth = depth;
+        ai.endgameEmpties = endgame;
+        return ai;
+    }
+
+    private static <T> T await(Future<T> f) throws IOException {
+        try {
+            return f.get();
+        } catch (InterruptedException e) {
+            f.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new IOException("interrupted", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("search failed: " + e.getCause(), e.getCause());
+        }
+    }
+
+    private String show() {
+        Position pos = game.position();
+        StringBuilder sb = new StringBuilder();
+        String s = pos.toString();
+        for (int r = 0; r < 8; r++) sb.append('\n').append(r + 1).append(' ').append(s, 8 * r, 8 * r + 8);
+        sb.append("\n  abcdefgh\n");
+        sb.append(game.isOver() ? "game over" : (game.toMove() == Position.BLACK ? "X" : "O") + " to move");
+        sb.append(", X ").append(pos.count(Position.BLACK)).append(" O ").append(pos.count(Position.WHITE));
+        return sb.toString();
+    }
+
+    /** {@code moves n wait p50 p99 search p50 p99} in milliseconds. */
+    private String stats() {
+        return String.format("moves %d wait %.1f %.1f search %.1f %.1f", moves,
+            percentile(waitNanos, moves, 50), percentile(waitNanos, moves, 99),
+            percentile(searchNanos, moves, 50), percentile(searchNanos, moves, 99));
+    }
+
+    /** {@code p}-th percentile of the first {@code n} values, in milliseconds. */
+    static double percentile(long[] nanos, int n, double p) {
+        if (n == 0) return 0;
+        long[] s = Arrays.copyOf(nanos, n);
+        Arrays.sort(s);
+        return s[Math.min(n - 1, (int) Math.ceil(p / 100 * n) - 1)] / 1e6;
+    }
+
+    private void reply(char status, String text) throws IOException {
+        out.write(status);
+        if (!text.isEmpty()) { out.write(' '); out.write(text); }
+        out.write("\n\n");
+        out.flush();
+    }
+}
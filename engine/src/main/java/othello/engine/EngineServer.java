@@ -0,0 +1,198 @@
+package othello.engine;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Hosts many independent {@link EngineProtocol} sessions over TCP, and a
+ * load generator to measure it.
+ * <pre>
+ *   EngineServer serve [-port P] [-workers W] [-tt B]
+ *   EngineServer load  [-host H] [-port P] [-sessions N] [-games G] [-time MS] [-depth D]
+ * </pre>
+ * {@code serve} gives every connection its own session on its own virtual
+ * thread (a plain thread before Java 21); all sessions share {@code W}
+ * engine threads (default: all cores) with one single-threaded
+ * {@link AIPlayer} each, so hundreds of games cost threads and sockets
+ * but never more searches at once than there are workers.
+ * <p>
+ * {@code load} opens {@code N} sessions at once, each playing {@code G}
+ * games against itself with {@code genmove}, and reports throughput and
+ * the latency each session saw, split into time queued for a worker and
+ * time searching (from the sessions' {@code stats}).
+ */
+public final class EngineServer {
+
+    static final int DEFAULT_PORT = 7070;
+
+    private EngineServer() {}
+
+    public static void main(String[] args) throws Exception {
+        String host = "localhost";
+        int port = DEFAULT_PORT, workers = Runtime.getRuntime().availableProcessors(), ttBits = 16;
+        int sessions = 100, games = 1, depth = 60;
+        long timeMs = 20;
+        for (int i = 1; i < args.length; i++) {
+            switch (args[i]) {
+                case "-host": host = args[++i]; break;
+                case "-port": port = Integer.parseInt(args[++i]); break;
+                case "-workers": workers = Integer.parseInt(args[++i]); break;
+                case "-tt": ttBits = Integer.parseInt(args[++i]); break;
+                case "-sessions": sessions = Integer.parseInt(args[++i]); break;
+                case "-games": games = Integer.parseInt(args[++i]); break;
+                case "-time": timeMs = Long.parseLong(args[++i]); break;
+                case "-depth": depth = Integer.parseInt(args[++i]); break;
+                default: throw new IllegalArgumentException("unknown option " + args[i]);
+            }
+        }
+        if (args.length > 0 && args[0].equals("serve")) {
+            serve(port, workers, ttBits);
+        } else if (args.length > 0 && args[0].equals("load")) {
+            load(host, port, sessions, games, timeMs, depth);
+        } else {
+            System.err.println("usage: EngineServer serve [-port P] [-workers W] [-tt B]");
+            System.err.println("       EngineServer load [-host H] [-port P] [-sessions N] [-games G] [-time MS] [-depth D]");
+            System.exit(2);
+        }
+    }
+
+    static void serve(int port, int workers, int ttBits) throws IOException {
+        ExecutorService sessions = perTaskThreads();
+        try (EngineProtocol.Engines engines = new EngineProtocol.Engines(workers, 1, ttBits);
+             ServerSocket server = new ServerSocket()) {
+            server.bind(new InetSocketAddress(port), 1024);
+            System.err.printf("listening on %d with %d engine workers%n", server.getLocalPort(), workers);
+            while (true) {
+                Socket s = server.accept();
+                sessions.execute(() -> {
+                    try (s) {
+                        s.setTcpNoDelay(true);
+                        new EngineProtocol(engines,
+                            new BufferedReader(new InputStreamReader(s.getInputStream(), StandardCharsets.US_ASCII)),
+                            new BufferedWriter(new OutputStreamWriter(s.getOutputStream(), StandardCharsets.US_ASCII))).run();
+                    } catch (IOException e) {
+                        // The client went away; nothing to clean up beyond the socket
+                    }
+                });
+            }
+        } finally {
+            sessions.shutdownNow();
+        }
+    }
+
+    /**
+     * {@code Executors.newVirtualThreadPerTaskExecutor()} where the runtime
+     * has it (Java 21+); this builds for 17, so it is looked up reflectively
+     * and falls back to one platform thread per task.
+     */
+    static ExecutorService perTaskThreads() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException e) {
+            return Executors.newCachedThreadPool(r -> {
+                Thread t = new Thread(r, "othello-session");
+                t.setDaemon(true);
+                return t;
+            });
+        }
+    }
+
+    /** What one load session measured. */
+    private static final class Run {
+        long[] roundTrip = new long[64];
+        int moves;
+        String stats;
+        long nanos;
+    }
+
+    static void load(String host, int port, int sessions, int games, long timeMs, int depth) throws Exception {
+        List<Future<Run>> runs = new ArrayList<>();
+        long start = System.nanoTime();
+        ExecutorService clients = perTaskThreads();
+        try {
+            for (int i = 0; i < sessions; i++) {
+                runs.add(clients.submit(() -> play(host, port, games, timeMs, depth)));
+            }
+            int moves = 0;
+            long[] all = new long[0];
+            double[] perSession = new double[sessions];
+            double waitP50 = 0, searchP50 = 0;
+            for (int i = 0; i < sessions; i++) {
+                Run r = runs.get(i).get();
+                all = Arrays.copyOf(all, moves + r.moves);
+                System.arraycopy(r.roundTrip, 0, all, moves, r.moves);
+                moves += r.moves;
+                perSession[i] = r.moves / (r.nanos / 1e9);
+                // "moves n wait p50 p99 search p50 p99"
+                String[] f = r.stats.split("\\s+");
+                waitP50 += Double.parseDouble(f[3]);
+                searchP50 += Double.parseDouble(f[6]);
+            }
+            double seconds = (System.nanoTime() - start) / 1e9;
+            Arrays.sort(perSession);
+            System.out.printf("%d sessions x %d games, %,d moves in %.1f s: %.0f moves/s%n",
+                              sessions, games, moves, seconds, moves / seconds);
+            System.out.printf("round trip ms: p50 %.1f  p90 %.1f  p99 %.1f  max %.1f%n",
+                              EngineProtocol.percentile(all, moves, 50), EngineProtocol.percentile(all, moves, 90),
+                              EngineProtocol.percentile(all, moves, 99), EngineProtocol.percentile(all, moves, 100));
+            System.out.printf("server side, mean of session medians: queued %.1f ms, searching %.1f ms%n",
+                              waitP50 / sessions, searchP50 / sessions);
+            System.out.printf("moves/s per session: min %.2f  median %.2f  max %.2f%n",
+                              perSession[0], perSession[sessions / 2], perSession[sessions - 1]);
+        } finally {
+            clients.shutdown();
+        }
+    }
+
+    /** One client: {@code games} self-play games through {@code genmove}. */
+    private static Run play(String host, int port, int games, long timeMs, int depth) throws IOException {
+        Run run = new Run();
+        long start = System.nanoTime();
+        try (Socket s = new Socket(host, port)) {
+            s.setTcpNoDelay(true);
+            BufferedReader in = new BufferedReader(new InputStreamReader(s.getInputStream(), StandardCharsets.US_ASCII));
+            Writer out = new BufferedWriter(new OutputStreamWriter(s.getOutputStream(), StandardCharsets.US_ASCII));
+            command(in, out, "set time " + timeMs);
+            command(in, out, "set depth " + depth);
+            for (int g = 0; g < games; g++) {
+                command(in, out, "new");
+                while (true) {
+                    long t = System.nanoTime();
+                    String reply = command(in, out, "genmove");
+                    if (reply.startsWith("?")) break; // game over
+                    if (run.moves == run.roundTrip.length) run.roundTrip = Arrays.copyOf(run.roundTrip, 2 * run.moves);
+                    run.roundTrip[run.moves++] = System.nanoTime() - t;
+                }
+            }
+            run.stats = command(in, out, "stats").substring(2);
+            command(in, out, "quit");
+        }
+        run.nanos = System.nanoTime() - start;
+        return run;
+    }
+
+    /** Sends one command and returns the first line of its reply. */
+    private static String command(BufferedReader in, Writer out, String cmd) throws IOException {
+        out.write(cmd);
+        out.write('\n');
+        out.flush();
+        String first = null;
+        for (String line; (line = in.readLine()) != null && !line.isEmpty(); ) if (first == null) first = line;
+        if (first == null) throw new IOException("connection closed after " + cmd);
+        return first;
+    }
+}
@@ -0,0 +1,148 @@
+package othello.engine;
+
+/**
+ * Static evaluation from WHITE's point of view. The negamax search always
+ * passes the side to move in the "white" slot, so it scores for the mover.
+ * <p>
+ * The square-weight term is maintained incrementally by the search: it
+ * starts from {@link #squares} at the root and is adjusted by
+ * {@link #squareDelta} on every move, so leaves never rescan the board.
+ * Mobility, frontier, corner-anchored edge stability and parity are then
+ * added at the leaf, each weighted by game phase (number of discs).
+ */
+public final class Evaluator {
+
+    /** Square weights; corners good, X- and C-squares bad. */
+    public static final int[][] WEIGHTS = {
+        {100, -20, 10,  5,  5, 10, -20, 100},
+        {-20, -50, -2, -2, -2, -2, -50, -20},
+        { 10,  -2, -1, -1, -1, -1,  -2,  10},
+        {  5,  -2, -1, -1, -1, -1,  -2,   5},
+        {  5,  -2, -1, -1, -1, -1,  -2,   5},
+        { 10,  -2, -1, -1, -1, -1,  -2,  10},
+        {-20, -50, -2, -2, -2, -2, -50, -20},
+        {100, -20, 10,  5,  5, 10, -20, 100}
+    };
+
+    /** Base score of a won game; final disc difference is added on top. */
+    public static final int WIN = 10000;
+
+    /** {@link #WEIGHTS} by square index; also the fallback for move ordering. */
+    static final int[] SQUARE = new int[64];
+
+    // Feature weights indexed by disc count 0..64, interpolated from opening to end
+    private static final int[] MOBILITY = phase(12, 4);
+    private static final int[] FRONTIER = phase(-6, -2);
+    private static final int[] STABLE = phase(30, 15);
+    private static final int[] PARITY = phase(0, 20);
+
+    private static final long CORNERS = 0x8100000000000081L;
+    /** First and last row; along them a step is a shift by 1. */
+    private static final long ROW_EDGES = 0xFF000000000000FFL;
+    /** First and last column; along them a step is a shift by 8. */
+    private static final long COLUMN_EDGES = 0x8181818181818181L;
+
+    static {
+        for (int sq = 0; sq < 64; sq++) SQUARE[sq] = WEIGHTS[Bitboard.row(sq)][Bitboard.col(sq)];
+    }
+
+    private Evaluator() {}
+
+    /**
+     * Square weights for an {@code n}×{@code n} board, by distance to the
+     * nearest two edges, following the same rules as {@link #WEIGHTS}: equal
+     * to it for {@code n = 8}.
+     */
+    public static int[][] weights(int n) {
+        int[][] w = new int[n][n];
+        for (int r = 0; r < n; r++) {
+            for (int c = 0; c < n; c++) {
+                int dr = Math.min(r, n - 1 - r), dc = Math.min(c, n - 1 - c);
+                int near = Math.min(dr, dc), far = Math.max(dr, dc);
+                if (near == 0) w[r][c] = far == 0 ? 100 : far == 1 ? -20 : far == 2 ? 10 : 5;
+                else if (near == 1) w[r][c] = far == 1 ? -50 : -2;
+                else w[r][c] = -1;
+            }
+        }
+        return w;
+    }
+
+    private static int[] phase(int opening, int end) {
+        int[] t = new int[65];
+        for (int n = 0; n <= 64; n++) {
+            int k = Math.max(0, Math.min(60, n - 4));
+            t[n] = (opening * (60 - k) + end * k) / 60;
+        }
+        return t;
+    }
+
+    /** Full square-weight score; used once at the root. */
+    public static int squares(long w, long b) {
+        int s = 0;
+        for (; w != 0; w &= w - 1) s += SQUARE[Long.numberOfTrailingZeros(w)];
+        for (; b != 0; b &= b - 1) s -= SQUARE[Long.numberOfTrailingZeros(b)];
+        return s;
+    }
+
+    /** Change of the mover's square score when it plays {@code sq} and turns {@code flips}. */
+    public static int squareDelta(int sq, long flips) {
+        int d = SQUARE[sq];
+        for (; flips != 0; flips &= flips - 1) d += 2 * SQUARE[Long.numberOfTrailingZeros(flips)];
+        return d;
+    }
+
+    /** Leaf evaluation; {@code squares} is the incrementally maintained square score. */
+    public static int eval(long w, long b, int squares, boolean whiteToMove) {
+        long occupied = w | b;
+        int n = Long.bitCount(occupied);
+        int mobility = Long.bitCount(Bitboard.moves(w, b)) - Long.bitCount(Bitboard.moves(b, w));
+        long nearEmpty = neighbours(~occupied);
+        int frontier = Long.bitCount(w & nearEmpty) - Long.bitCount(b & nearEmpty);
+        int stable = Long.bitCount(edgeStable(w)) - Long.bitCount(edgeStable(b));
+        int parity = ((64 - n) & 1) == 1 == whiteToMove ? 1 : -1;
+        return squares + MOBILITY[n] * mobility + FRONTIER[n] * frontier + STABLE[n] * stable + PARITY[n] * parity;
+    }
+
+    /** Exact score of a finished game: win/loss first, then disc difference. */
+    public static int terminal(long w, long b) {
+        int diff = Long.bitCount(w) - Long.bitCount(b);
+        return diff > 0 ? WIN + diff : diff < 0 ? -WIN + diff : 0;
+    }
+
+    /** Squares adjacent (in any of the 8 directions) to a set bit of {@code x}. */
+    static long neighbours(long x) {
+        long h = ((x << 1) & ~0x0101010101010101L) | ((x >>> 1) & ~0x8080808080808080L);
+        long row = x | h;
+        return h | (row << 8) | (row >>> 8);
+    }
+
+    /** Discs of {@code p} joined to an owned corner by an unbroken line of {@code p} along an edge. */
+    static long edgeStable(long p) {
+        long corners = p & CORNERS;
+        long rows = p & ROW_EDGES, columns = p & COLUMN_EDGES;
+        return fillUp(corners, rows, 1) | fillDown(corners, rows, 1)
+             | fillUp(corners, columns, 8) | fillDown(corners, columns, 8);
+    }
+
+    /**
+     * Kogge-Stone fill: {@code gen} extended through {@code pro} towards
+     * higher squares, {@code s} squares per step. {@code pro} must not wrap
+     * from one line to the next, which the edge masks guarantee.
+     */
+    private static long fillUp(long gen, long pro, int s) {
+        gen |= pro & (gen << s);
+        pro &= pro << s;
+        gen |= pro & (gen << 2 * s);
+        pro &= pro << 2 * s;
+        return gen | pro & (gen << 4 * s);
+    }
+
+    /** {@link #fillUp} towards lower squares. */
+    private static long fillDown(long gen, long pro, int s) {
+        gen |= pro & (gen >>> s);
+        pro &= pro >>> s;
+        gen |= pro & (gen >>> 2 * s);
+        pro &= pro >>> 2 * s;
+        return gen | pro & (gen >>> 4 * s);
+    }
+}
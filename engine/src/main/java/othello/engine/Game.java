@@ -0,0 +1,88 @@
+package othello.engine;
+
+import java.util.Arrays;
+
+/**
+ * A game in progress, with no UI attached: the position, whose turn it
+ * is and the move history. Forced passes are applied automatically, so
+ * after {@link #play} it is always the turn of a player who can move,
+ * unless the game is over.
+ * <p>
+ * Not thread-safe; callers that search on another thread should hand the
+ * engine {@link #position()}, which is immutable.
+ */
+public final class Game {
+
+    /** History entry for a forced pass. */
+    public static final int PASS = -1;
+
+    private Position position;
+    private int toMove;
+    private int[] history = new int[64];
+    private int plies;
+    private boolean lastPassed;
+
+    public Game() {
+        this(Position.initial(), Position.BLACK);
+    }
+
+    public Game(Position start, int toMove) {
+        position = start;
+        this.toMove = toMove;
+        skipPass();
+        lastPassed = false;
+    }
+
+    public Position position() { return position; }
+
+    /** Player to move; meaningless once {@link #isOver()}. */
+    public int toMove() { return toMove; }
+
+    public long validMoves() { return position.moves(toMove); }
+
+    public boolean isValidMove(int sq) { return sq >= 0 && sq < 64 && (validMoves() & (1L << sq)) != 0; }
+
+    /**
+     * Plays {@code sq} for the player to move and returns the discs it
+     * flipped. If the opponent then has no move the turn comes straight
+     * back, which {@link #opponentPassed()} reports.
+     */
+    public long play(int sq) {
+        if (!isValidMove(sq)) throw new IllegalArgumentException("illegal move " + Bitboard.name(sq) + " for " + toMove);
+        long me = position.discs(toMove), opp = position.discs(3 - toMove);
+        long flips = Bitboard.flips(me, opp, sq);
+        position = position.play(toMove, sq);
+        record(sq);
+        toMove = 3 - toMove;
+        lastPassed = skipPass();
+        return flips;
+    }
+
+    /** Whether the last {@link #play} left the opponent without a move. */
+    public boolean opponentPassed() { return lastPassed; }
+
+    public boolean isOver() { return position.moves(Position.BLACK) == 0 && position.moves(Position.WHITE) == 0; }
+
+    public int count(int player) { return position.count(player); }
+
+    /** BLACK, WHITE or EMPTY for a draw; only meaningful once the game is over. */
+    public int winner() {
+        int d = count(Position.BLACK) - count(Position.WHITE);
+        return d > 0 ? Position.BLACK : d < 0 ? Position.WHITE : Position.EMPTY;
+    }
+
+    /** Moves played so far, with {@link #PASS} for forced passes. */
+    public int[] history() { return Arrays.copyOf(history, plies); }
+
+    private boolean skipPass() {
+        if (position.moves(toMove) != 0 || isOver()) return false;
+        record(PASS);
+        toMove = 3 - toMove;
+        return true;
+    }
+
+    private void record(int move) {
+        if (plies == history.length) history = Arrays.copyOf(history, plies * 2);
+        history[plies++] = move;
+    }
+}
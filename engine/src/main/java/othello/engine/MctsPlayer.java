@@ -0,0 +1,377 @@
+package othello.engine;
+
+import java.util.Arrays;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Monte Carlo tree search (UCT): grows a tree towards the moves whose
+ * random playouts win most often, and plays the root move visited most.
+ * <p>
+ * With {@code threads > 1} every thread grows the same tree. A thread
+ * counts its visit on each node on the way down, before its playout has a
+ * result, so until then the visit looks like a loss to the others (virtual
+ * loss) and they spread out over other branches. Visits and wins of a node
+ * share one {@code long}, so updates are single atomic adds; a leaf is
+ * expanded by the one thread that wins a compare-and-set on it.
+ * <p>
+ * Nodes live in flat arrays allocated once for {@code 2^nodeBits} nodes; a
+ * full tree stops growing but keeps being searched. Playouts run on
+ * bitboards and allocate nothing. They take corners when they can and
+ * avoid X-squares next to an empty corner ({@link #weighted}), which is
+ * cheap and much stronger than uniform moves.
+ */
+public final class MctsPlayer implements Engine {
+
+    /** UCT exploration constant, for win rates in [0, 1]. */
+    static final double EXPLORATION = 1.0;
+    /** A leaf gets children only after this many visits, so the tree holds nodes worth having. */
+    static final int EXPAND_VISITS = 4;
+    private static final int UNEXPANDED = -1, EXPANDING = -2, FULL = -3;
+    /** {@code stats} layout: visits in the high half, half-points won in the low half. */
+    private static final long VISIT = 1L << 32, POINTS = 0xFFFFFFFFL;
+    private static final long CORNERS = 0x8100000000000081L;
+    private static final int MAX_PATH = 128, PV_LENGTH = 12;
+
+    /** Time per move in milliseconds. */
+    public long moveTimeMs = 1000;
+    /** Search threads; 1 disables tree parallelism. */
+    public int threads = Integer.getInteger("othello.threads", Runtime.getRuntime().availableProcessors());
+    /** Stops after about this many playouts even with time left, for fixed-budget comparisons. */
+    public long maxPlayouts = Long.MAX_VALUE;
+    /** Corner-first, X-square-avoiding playouts; uniformly random when off. */
+    public boolean weighted = true;
+    /** At or below this many empty squares the exact {@link EndgameSolver} is tried first; 0 disables it. */
+    public int endgameEmpties = Integer.getInteger("othello.endgame", 18);
+
+    private final int capacity;
+    /** Move that led to the node: a square or {@link Game#PASS}. */
+    private final byte[] move;
+    private final byte[] childCount;
+    /** First child (children are contiguous), or one of the negative states; written last on expansion. */
+    private final AtomicIntegerArray firstChild;
+    /** Visits and half-points won, for the player who made {@link #move}. */
+    private final AtomicLongArray stats;
+    private final AtomicInteger used = new AtomicInteger();
+    private final AtomicLong playouts = new AtomicLong();
+
+    private volatile boolean stopped, cancelled;
+    private volatile long deadline;
+    private ExecutorService pool;
+    private Walker[] walkers = new Walker[0];
+    private long searches;
+
+    private final SearchStats lastStats = new SearchStats();
+    private int[] lastPv = new int[0];
+    private EndgameSolver solver;
+
+    public MctsPlayer() {
+        this(21);
+    }
+
+    public MctsPlayer(int nodeBits) {
+        capacity = 1 << nodeBits;
+        move = new byte[capacity];
+        childCount = new byte[capacity];
+        firstChild = new AtomicIntegerArray(capacity);
+        stats = new AtomicLongArray(capacity);
+    }
+
+    @Override public SearchStats stats() { return lastStats; }
+
+    @Override public int[] pv() { return lastPv; }
+
+    /** The tree is rebuilt for every move; only the solver remembers anything. */
+    @Override public void newGame() {
+        if (solver != null) solver.newGame();
+    }
+
+    @Override
+    public void cancel() {
+        cancelled = true;
+        stopped = true;
+        deadline = 0;
+        EndgameSolver s = solver;
+        if (s != null) s.setDeadline(0);
+    }
+
+    @Override public void clearCancel() { cancelled = false; }
+
+    @Override
+    public int getBestMove(Position pos, int player) {
+        long start = System.nanoTime();
+        lastStats.reset();
+        lastPv = new int[0];
+        long me = pos.discs(player), opp = pos.discs(3 - player);
+        long moves = Bitboard.moves(me, opp);
+        int best = -1;
+        if (moves != 0 && Long.bitCount(moves) == 1) {
+            best = Long.numberOfTrailingZeros(moves);
+            lastStats.source = SearchStats.Source.FORCED;
+            lastPv = new int[] {best};
+        } else if (moves != 0 && !solve(me, opp, start)) {
+            best = search(me, opp, start);
+        } else if (moves != 0) {
+            best = lastPv[0];
+        }
+        lastStats.elapsedNanos = System.nanoTime() - start;
+        return best;
+    }
+
+    /**
+     * Random playouts judge endgames badly and the solver is exact, so it
+     * gets the first half of the budget; returns false if it did not finish.
+     */
+    private boolean solve(long me, long opp, long start) {
+        if (64 - Long.bitCount(me | opp) > endgameEmpties) return false;
+        if (solver == null) solver = new EndgameSolver(18);
+        solver.setDeadline(start + moveTimeMs * 500_000L);
+        // Same ordering as search(): a cancel() racing with the write above still wins
+        if (cancelled) solver.setDeadline(0);
+        int sq = solver.solve(me, opp, true);
+        if (solver.aborted || sq < 0) return false;
+        lastStats.source = SearchStats.Source.SOLVER;
+        lastStats.nodes = solver.nodes;
+        lastStats.depth = 64 - Long.bitCount(me | opp);
+        lastStats.score = solver.score;
+        lastPv = new int[] {sq};
+        return true;
+    }
+
+    private int search(long me, long opp, long start) {
+        stopped = false;
+        deadline = start + moveTimeMs * 1_000_000L;
+        // Checked after the writes, so a concurrent cancel() can never be overwritten
+        if (cancelled) { stopped = true; deadline = 0; }
+        playouts.set(0);
+        used.set(1);
+        firstChild.set(0, UNEXPANDED);
+        stats.set(0, 0);
+        expand(0, me, opp);
+
+        int n = Math.max(1, threads);
+        ensureWalkers(n);
+        searches++;
+        Future<?>[] helpers = new Future<?>[n - 1];
+        for (int i = 1; i < n; i++) {
+            Walker w = walkers[i];
+            w.reset(searches * 0x9E3779B97F4A7C15L + i);
+            helpers[i - 1] = pool.submit(() -> w.run(me, opp));
+        }
+        walkers[0].reset(searches * 0x9E3779B97F4A7C15L);
+        walkers[0].run(me, opp);
+        stopped = true;
+        int depth = walkers[0].maxDepth;
+        for (int i = 1; i < n; i++) {
+            try {
+                helpers[i - 1].get();
+            } catch (Exception e) {
+                throw new IllegalStateException("helper search failed", e);
+            }
+            depth = Math.max(depth, walkers[i].maxDepth);
+        }
+
+        int best = mostVisited(0);
+        long s = stats.get(best);
+        lastStats.source = SearchStats.Source.MCTS;
+        lastStats.nodes = playouts.get();
+        lastStats.depth = depth;
+        lastStats.threads = n;
+        lastStats.score = (s >>> 32) == 0 ? 50 : (int) Math.round(50.0 * (s & POINTS) / (s >>> 32));
+        lastPv = principalVariation();
+        return move[best];
+    }
+
+    /** Child of {@code node} with the most visits; {@code node} must have children. */
+    private int mostVisited(int node) {
+        int first = firstChild.get(node), best = first;
+        for (int c = first + 1; c < first + childCount[node]; c++) {
+            if ((stats.get(c) >>> 32) > (stats.get(best) >>> 32)) best = c;
+        }
+        return best;
+    }
+
+    private int[] principalVariation() {
+        int[] pv = new int[PV_LENGTH];
+        int len = 0;
+        for (int node = 0; len < PV_LENGTH && firstChild.get(node) >= 0 && childCount[node] > 0; ) {
+            node = mostVisited(node);
+            if ((stats.get(node) >>> 32) == 0) break;
+            pv[len++] = move[node];
+        }
+        return Arrays.copyOf(pv, len);
+    }
+
+    /**
+     * Gives {@code node} (where {@code me} is to move) its children, if no
+     * other thread is doing it, and returns the first; a negative result
+     * means it stays a leaf for now.
+     */
+    private int expand(int node, long me, long opp) {
+        if (!firstChild.compareAndSet(node, UNEXPANDED, EXPANDING)) return firstChild.get(node);
+        long moves = Bitboard.moves(me, opp);
+        int n = moves != 0 ? Long.bitCount(moves) : Bitboard.moves(opp, me) != 0 ? 1 : 0;
+        // Checked first so failed attempts cannot push the counter far past the end
+        if (used.get() + n > capacity) {
+            firstChild.set(node, FULL);
+            return FULL;
+        }
+        int start = used.getAndAdd(n);
+        if (start + n > capacity) {
+            firstChild.set(node, FULL);
+            return FULL;
+        }
+        for (int c = start; c < start + n; c++) {
+            if (moves != 0) {
+                move[c] = (byte) Long.numberOfTrailingZeros(moves);
+                moves &= moves - 1;
+            } else {
+                move[c] = Game.PASS;
+            }
+            childCount[c] = 0;
+            stats.set(c, 0);
+            firstChild.set(c, UNEXPANDED);
+        }
+        childCount[node] = (byte) n;
+        firstChild.set(node, start);
+        return start;
+    }
+
+    private void ensureWalkers(int n) {
+        if (walkers.length == n) return;
+        if (pool != null) pool.shutdownNow();
+        pool = n > 1 ? Executors.newFixedThreadPool(n - 1, r -> {
+            Thread t = new Thread(r, "othello-mcts");
+            t.setDaemon(true);
+            return t;
+        }) : null;
+        walkers = new Walker[n];
+        for (int i = 0; i < n; i++) walkers[i] = new Walker();
+    }
+
+    /** One thread's selection path, random state and counters. */
+    private final class Walker {
+        private final int[] path = new int[MAX_PATH];
+        private long rng;
+        int maxDepth;
+
+        void reset(long seed) {
+            // splitmix64, so neighbouring seeds give unrelated streams
+            long z = seed + 0x9E3779B97F4A7C15L;
+            z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+            z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+            rng = (z ^ (z >>> 31)) | 1;
+            maxDepth = 0;
+        }
+
+        void run(long rootMe, long rootOpp) {
+            long local = 0;
+            while (!stopped) {
+                // Shared counter and clock are read in batches; a playout costs far less than a cache miss war
+                if ((++local & 63) == 0) {
+                    long total = playouts.addAndGet(64);
+                    if (total >= maxPlayouts || System.nanoTime() >= deadline) break;
+                }
+                playOne(rootMe, rootOpp);
+            }
+            playouts.addAndGet(local & 63);
+        }
+
+        /** Selection, expansion, one playout and backpropagation. */
+        private void playOne(long me, long opp) {
+            int node = 0, len = 0;
+            path[len++] = 0;
+            stats.addAndGet(0, VISIT);
+            while (len < MAX_PATH) {
+                int first = firstChild.get(node);
+                if (first < 0) {
+                    if (first != UNEXPANDED || (stats.get(node) >>> 32) < EXPAND_VISITS) break;
+                    first = expand(node, me, opp);
+                    if (first < 0) break;
+                }
+                int n = childCount[node];
+                if (n == 0) break;
+                node = select(node, first, n);
+                stats.addAndGet(node, VISIT);
+                path[len++] = node;
+                int sq = move[node];
+                if (sq >= 0) {
+                    long f = Bitboard.flips(me, opp, sq);
+                    long t = me | f | (1L << sq);
+                    me = opp & ~f;
+                    opp = t;
+                } else {
+                    long t = me; me = opp; opp = t;
+                }
+            }
+            if (len - 1 > maxDepth) maxDepth = len - 1;
+
+            int diff = playout(me, opp);
+            // Points for whoever moved into path[1], the root mover; it alternates down the path
+            int rootDiff = ((len - 1) & 1) == 0 ? diff : -diff;
+            long pts = rootDiff > 0 ? 2 : rootDiff == 0 ? 1 : 0;
+            for (int i = 1; i < len; i++) stats.addAndGet(path[i], (i & 1) == 1 ? pts : 2 - pts);
+        }
+
+        /** UCB1 child; unvisited children first, in order, which virtual loss spreads over threads. */
+        private int select(int node, int first, int n) {
+            double logN = Math.log(Math.max(1, stats.get(node) >>> 32));
+            int best = first;
+            double bestU = -1;
+            for (int c = first; c < first + n; c++) {
+                long s = stats.get(c);
+                long v = s >>> 32;
+                if (v == 0) return c;
+                double u = (s & POINTS) / (2.0 * v) + EXPLORATION * Math.sqrt(logN / v);
+                if (u > bestU) { bestU = u; best = c; }
+            }
+            return best;
+        }
+
+        /** Plays to the end and returns the final disc difference for {@code me}. */
+        private int playout(long me, long opp) {
+            int sign = 1;
+            while (true) {
+                long moves = Bitboard.moves(me, opp);
+                if (moves == 0) {
+                    if (Bitboard.moves(opp, me) == 0) break;
+                    long t = me; me = opp; opp = t;
+                    sign = -sign;
+                    continue;
+                }
+                if (weighted) {
+                    long corners = moves & CORNERS;
+                    if (corners != 0) {
+                        moves = corners;
+                    } else {
+                        long ec = CORNERS & ~(me | opp);
+                        long x = ((ec & 1L) << 9) | ((ec & (1L << 7)) << 7) | ((ec & (1L << 56)) >>> 7) | ((ec & (1L << 63)) >>> 9);
+                        if ((moves & ~x) != 0) moves &= ~x;
+                    }
+                }
+                for (int k = nextInt(Long.bitCount(moves)); k > 0; k--) moves &= moves - 1;
+                int sq = Long.numberOfTrailingZeros(moves);
+                long f = Bitboard.flips(me, opp, sq);
+                long t = me | f | (1L << sq);
+                me = opp & ~f;
+                opp = t;
+                sign = -sign;
+            }
+            return sign * (Long.bitCount(me) - Long.bitCount(opp));
+        }
+
+        /** xorshift64*, reduced to {@code [0, bound)} by multiply-shift. */
+        private int nextInt(int bound) {
+            rng ^= rng >>> 12;
+            rng ^= rng << 25;
+            rng ^= rng >>> 27;
+            long r = (rng * 0x2545F4914F6CDD1DL) >>> 32;
+            return (int) ((r * bound) >>> 32);
+        }
+    }
+}
@@ -0,0 +1,86 @@
+package othello.engine;
+
+import java.util.Arrays;
+
+/**
+ * Move ordering for one search thread: the hash (PV) move first, then the
+ * two killer moves of the ply, then moves by history score, with the
+ * static square weight breaking ties among moves that have no history yet.
+ * <p>
+ * Killers are the last two moves that caused a cutoff at the same ply in a
+ * sibling subtree. History is indexed by side and square and grows by
+ * {@code depth * depth} for every cutoff, so moves that refute deep
+ * subtrees dominate. Neither needs locking: each worker owns its own.
+ */
+final class MoveOrder {
+
+    static final int MAX_PLY = 64;
+    /** Bound on the legal moves of one position, for per-ply move buffers: 33 in a real game, more in a set-up one. */
+    static final int MAX_MOVES = 64;
+
+    private static final int HASH_BONUS = 1 << 30;
+    private static final int KILLER1_BONUS = 1 << 29;
+    private static final int KILLER2_BONUS = 1 << 28;
+    /** History is halved once a score reaches this, keeping {@code history << 8} below the killer bonus. */
+    private static final int HISTORY_LIMIT = 1 << 19;
+
+    private final int[] killer1 = new int[MAX_PLY], killer2 = new int[MAX_PLY];
+    private final int[][] history = new int[2][64];
+    // Per-ply scratch, so ordering never allocates
+    private final int[][] keys = new int[MAX_PLY][MAX_MOVES];
+
+    /** Start of a new move decision: killers are position specific, history is only aged. */
+    void newSearch() {
+        Arrays.fill(killer1, -1);
+        Arrays.fill(killer2, -1);
+        for (int[] h : history)
+            for (int sq = 0; sq < 64; sq++) h[sq] >>= 2;
+    }
+
+    void clear() {
+        for (int[] h : history) Arrays.fill(h, 0);
+    }
+
+    /**
+     * Writes {@code moves} into {@code out} best first and returns how many
+     * there are. {@code side} is 0 for the root mover and 1 for the opponent.
+     * Just above the leaves ({@code depth <= 1}) a full sort costs more than
+     * it saves, so only the hash and killer moves are pulled to the front.
+     */
+    int order(long moves, int hashMove, int ply, int side, int depth, int[] out) {
+        int p = Math.min(ply, MAX_PLY - 1);
+        int k1 = killer1[p], k2 = killer2[p];
+        if (depth <= 1) {
+            int n = 0;
+            if (hashMove >= 0 && (moves & (1L << hashMove)) != 0) { out[n++] = hashMove; moves &= ~(1L << hashMove); }
+            if (k1 >= 0 && (moves & (1L << k1)) != 0) { out[n++] = k1; moves &= ~(1L << k1); }
+            if (k2 >= 0 && (moves & (1L << k2)) != 0) { out[n++] = k2; moves &= ~(1L << k2); }
+            for (; moves != 0; moves &= moves - 1) out[n++] = Long.numberOfTrailingZeros(moves);
+            return n;
+        }
+        int[] key = keys[p], hist = history[side];
+        int n = 0;
+        for (; moves != 0; moves &= moves - 1) {
+            int sq = Long.numberOfTrailingZeros(moves);
+            int s = sq == hashMove ? HASH_BONUS
+                  : sq == k1 ? KILLER1_BONUS
+                  : sq == k2 ? KILLER2_BONUS
+                  : (hist[sq] << 8) + Evaluator.SQUARE[sq] + 128;
+            // Insertion sort; rarely more than 20 moves, never more than 33
+            int j = n++;
+            while (j > 0 && key[j - 1] < s) { key[j] = key[j - 1]; out[j] = out[j - 1]; j--; }
+            key[j] = s; out[j] = sq;
+        }
+        return n;
+    }
+
+    /** {@code sq} refuted the rest of the node at {@code ply}, searched to {@code depth}. */
+    void cutoff(int sq, int ply, int side, int depth) {
+        int p = Math.min(ply, MAX_PLY - 1);
+        if (killer1[p] != sq) { killer2[p] = killer1[p]; killer1[p] = sq; }
+        int[] hist = history[side];
+        hist[sq] += depth * depth;
+        if (hist[sq] >= HISTORY_LIMIT)
+            for (int i = 0; i < 64; i++) hist[i] >>= 1;
+    }
+}
@@ -0,0 +1,90 @@
+package othello.engine;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Read-only opening book, memory-mapped so opening it costs one
+ * {@code mmap} regardless of size; pages are faulted in by the lookups
+ * that touch them.
+ * <p>
+ * File layout (big-endian): {@code int} magic, {@code int} entry count,
+ * then entries of {@value #ENTRY_BYTES} bytes sorted by key:
+ * {@code long mover, long opponent, short move, short score}. Keys are the
+ * canonical form under {@link Symmetry}, and the move is stored in that
+ * canonical orientation; {@link #lookup} maps it back.
+ */
+public final class OpeningBook {
+
+    public static final int MAGIC = 0x4F424B31; // "OBK1"
+    static final int HEADER_BYTES = 8;
+    static final int ENTRY_BYTES = 20;
+
+    private final ByteBuffer buf;
+    private final int count;
+
+    private OpeningBook(ByteBuffer buf) throws IOException {
+        if (buf.capacity() < HEADER_BYTES || buf.getInt(0) != MAGIC) throw new IOException("not an opening book");
+        count = buf.getInt(4);
+        if ((long) count * ENTRY_BYTES + HEADER_BYTES > buf.capacity()) throw new IOException("truncated opening book");
+        this.buf = buf;
+    }
+
+    public static OpeningBook open(Path file) throws IOException {
+        try (FileChannel ch = FileChannel.open(file, StandardOpenOption.READ)) {
+            // The mapping stays valid after the channel is closed
+            return new OpeningBook(ch.map(FileChannel.MapMode.READ_ONLY, 0, ch.size()));
+        }
+    }
+
+    /** Opens {@code file} if it exists and is a valid book, otherwise returns {@code null}. */
+    public static OpeningBook openIfExists(Path file) {
+        if (!Files.isRegularFile(file)) return null;
+        try {
+            return open(file);
+        } catch (IOException e) {
+            System.err.println("Ignoring opening book " + file + ": " + e.getMessage());
+            return null;
+        }
+    }
+
+    public int size() { return count; }
+
+    /** Book move for the side owning {@code me}, or {@code -1} if the position is not in the book. */
+    public int lookup(long me, long opp) {
+        int s = Symmetry.canonical(me, opp);
+        int i = find(Symmetry.apply(s, me), Symmetry.apply(s, opp));
+        if (i < 0) return -1;
+        int move = buf.getShort(HEADER_BYTES + i * ENTRY_BYTES + 16);
+        return move < 0 ? -1 : Symmetry.invertSquare(s, move);
+    }
+
+    /** Book score for the side owning {@code me}, or {@code Integer.MIN_VALUE} if not in the book. */
+    public int score(long me, long opp) {
+        int s = Symmetry.canonical(me, opp);
+        int i = find(Symmetry.apply(s, me), Symmetry.apply(s, opp));
+        return i < 0 ? Integer.MIN_VALUE : buf.getShort(HEADER_BYTES + i * ENTRY_BYTES + 18);
+    }
+
+    private int find(long p, long o) {
+        int lo = 0, hi = count - 1;
+        while (lo <= hi) {
+            int mid = (lo + hi) >>> 1;
+            int at = HEADER_BYTES + mid * ENTRY_BYTES;
+            int c = compare(buf.getLong(at), buf.getLong(at + 8), p, o);
+            if (c < 0) lo = mid + 1;
+            else if (c > 0) hi = mid - 1;
+            else return mid;
+        }
+        return -1;
+    }
+
+    static int compare(long p1, long o1, long p2, long o2) {
+        int c = Long.compareUnsigned(p1, p2);
+        return c != 0 ? c : Long.compareUnsigned(o1, o2);
+    }
+}
@@ -0,0 +1,74 @@
+package othello.engine;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * Measures the Lazy SMP speedup curve: time to finish a fixed-depth search
+ * on a fixed set of midgame positions for 1..N threads.
+ * <p>
+ * Usage: {@code java othello.engine.ParallelBench [maxThreads] [depth] [positions]}
+ */
+public final class ParallelBench {
+
+    private ParallelBench() {}
+
+    public static void main(String[] args) {
+        int maxThreads = args.length > 0 ? Integer.parseInt(args[0]) : Runtime.getRuntime().availableProcessors();
+        int depth = args.length > 1 ? Integer.parseInt(args[1]) : 10;
+        int count = args.length > 2 ? Integer.parseInt(args[2]) : 20;
+
+        List<Position> suite = positions(count, 36, 0x5EED);
+        AIPlayer ai = new AIPlayer();
+        ai.maxDepth = depth;
+        ai.moveTimeMs = 24L * 3600 * 1000;
+
+        // One untimed pass so the JIT has compiled the search before anything is measured
+        ai.threads = 1;
+        for (Position p : suite) { ai.newGame(); ai.getBestMove(p, Position.BLACK); }
+
+        int[] reference = new int[suite.size()];
+        double baseMs = 0;
+        System.out.printf("threads  time(ms)  speedup  Mnodes/s  same-move%n");
+        for (int t = 1; t <= maxThreads; t++) {
+            ai.threads = t;
+            long nodes = 0, start = System.nanoTime();
+            int same = 0;
+            for (int i = 0; i < suite.size(); i++) {
+                ai.newGame();
+                int move = ai.getBestMove(suite.get(i), Position.BLACK);
+                nodes += ai.lastNodes;
+                if (t == 1) reference[i] = move;
+                if (move == reference[i]) same++;
+            }
+            double ms = (System.nanoTime() - start) / 1e6;
+            if (t == 1) baseMs = ms;
+            System.out.printf("%7d  %8.0f  %7.2f  %8.2f  %8.0f%%%n",
+                t, ms, baseMs / ms, nodes / ms / 1000, 100.0 * same / suite.size());
+        }
+    }
+
+    /** Reproducible positions with BLACK to move, reached by seeded random play. */
+    static List<Position> positions(int count, int empties, long seed) {
+        SplittableRandom rnd = new SplittableRandom(seed);
+        List<Position> out = new ArrayList<>();
+        while (out.size() < count) {
+            Position pos = Position.initial();
+            int player = Position.BLACK;
+            while (pos.empties() > empties) {
+                long moves = pos.moves(player);
+                if (moves == 0) {
+                    player = 3 - player;
+                    if (pos.moves(player) == 0) break;
+                    continue;
+                }
+                for (int k = rnd.nextInt(Long.bitCount(moves)); k > 0; k--) moves &= moves - 1;
+                pos = pos.play(player, Long.numberOfTrailingZeros(moves));
+                player = 3 - player;
+            }
+            if (pos.empties() == empties && player == Position.BLACK && pos.moves(player) != 0) out.add(pos);
+        }
+        return out;
+    }
+}
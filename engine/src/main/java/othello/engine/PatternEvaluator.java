@@ -0,0 +1,145 @@
+package othello.engine;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Pattern-table evaluation: the board is cut into fixed square sets (edge
+ * plus both X-squares, 3x3 and 2x5 corners, the diagonals of length 4 to
+ * 8), each set's contents are read as a base-3 number (0 empty, 1 mover,
+ * 2 opponent) and that number indexes a table of trained weights. All
+ * symmetric copies of a pattern share one table. The score is the sum
+ * over every copy plus a bias, for the side to move, in
+ * 1/{@value #SCALE} of a disc of predicted final margin.
+ * <p>
+ * Weights are kept per game phase (by disc count) as {@code short} tables,
+ * loaded from a file written by {@link PatternTrainer}. File layout
+ * (big-endian): {@code int} magic, {@code int} phase count, {@code int}
+ * type count, then for every phase and type {@code 3^size} shorts.
+ */
+public final class PatternEvaluator {
+
+    public static final int MAGIC = 0x4F505431; // "OPT1"
+    /** Score units per disc. */
+    public static final int SCALE = 32;
+
+    /** Pattern types by their instance at the a1 corner, as {row, col} pairs. */
+    private static final int[][][] SHAPES = {
+        {{0, 0}, {0, 1}, {0, 2}, {0, 3}, {0, 4}, {0, 5}, {0, 6}, {0, 7}, {1, 1}, {1, 6}}, // edge + 2X
+        {{0, 0}, {0, 1}, {0, 2}, {1, 0}, {1, 1}, {1, 2}, {2, 0}, {2, 1}, {2, 2}},         // corner 3x3
+        {{0, 0}, {0, 1}, {0, 2}, {0, 3}, {0, 4}, {1, 0}, {1, 1}, {1, 2}, {1, 3}, {1, 4}}, // corner 2x5
+        diagonal(0, 8), diagonal(1, 7), diagonal(2, 6), diagonal(3, 5), diagonal(4, 4),
+        {}                                                                                 // bias
+    };
+    static final int TYPES = SHAPES.length;
+    /** Entries per type's table: {@code 3^size}. */
+    static final int[] TABLE_SIZE = new int[TYPES];
+    /** Every symmetric copy of every pattern: its squares, most significant digit first, and its type. */
+    static final int[][] INSTANCE_SQUARES;
+    static final int[] INSTANCE_TYPE;
+
+    static {
+        List<int[]> squares = new ArrayList<>();
+        List<Integer> types = new ArrayList<>();
+        for (int t = 0; t < TYPES; t++) {
+            TABLE_SIZE[t] = pow3(SHAPES[t].length);
+            Set<Long> seen = new HashSet<>();
+            for (int s = 0; s < Symmetry.COUNT; s++) {
+                int[] sq = new int[SHAPES[t].length];
+                long mask = 0;
+                for (int i = 0; i < sq.length; i++) {
+                    sq[i] = Symmetry.applySquare(s, Bitboard.square(SHAPES[t][i][0], SHAPES[t][i][1]));
+                    mask |= 1L << sq[i];
+                }
+                // A copy covering the same squares as an earlier one would count the pattern twice
+                if (seen.add(mask)) { squares.add(sq); types.add(t); }
+            }
+        }
+        INSTANCE_SQUARES = squares.toArray(new int[0][]);
+        INSTANCE_TYPE = types.stream().mapToInt(Integer::intValue).toArray();
+    }
+
+    private final int phases;
+    /** {@code weights[phase][type][index]}. */
+    private final short[][][] weights;
+
+    PatternEvaluator(short[][][] weights) {
+        this.phases = weights.length;
+        this.weights = weights;
+    }
+
+    public static PatternEvaluator open(Path file) throws IOException {
+        try (FileChannel ch = FileChannel.open(file, StandardOpenOption.READ)) {
+            ByteBuffer buf = ch.map(FileChannel.MapMode.READ_ONLY, 0, ch.size());
+            if (buf.capacity() < 12 || buf.getInt() != MAGIC) throw new IOException("not a pattern file");
+            int phases = buf.getInt(), types = buf.getInt();
+            if (phases < 1 || phases > 60 || types != TYPES) throw new IOException("pattern file does not match this engine");
+            long need = 0;
+            for (int t = 0; t < TYPES; t++) need += 2L * TABLE_SIZE[t];
+            if (buf.remaining() < need * phases) throw new IOException("truncated pattern file");
+            // Copied into plain arrays: the tables are read at every leaf
+            short[][][] w = new short[phases][TYPES][];
+            for (int p = 0; p < phases; p++) {
+                for (int t = 0; t < TYPES; t++) {
+                    w[p][t] = new short[TABLE_SIZE[t]];
+                    buf.asShortBuffer().get(w[p][t]);
+                    buf.position(buf.position() + 2 * TABLE_SIZE[t]);
+                }
+            }
+            return new PatternEvaluator(w);
+        }
+    }
+
+    /** Opens {@code file} if it exists and is a valid pattern file, otherwise returns {@code null}. */
+    public static PatternEvaluator openIfExists(Path file) {
+        if (!Files.isRegularFile(file)) return null;
+        try {
+            return open(file);
+        } catch (IOException e) {
+            System.err.println("Ignoring pattern file " + file + ": " + e.getMessage());
+            return null;
+        }
+    }
+
+    public int phases() { return phases; }
+
+    /** Score for the side owning {@code me}, who is to move. */
+    public int eval(long me, long opp) {
+        short[][] w = weights[phase(Long.bitCount(me | opp), phases)];
+        int s = 0;
+        for (int i = 0; i < INSTANCE_SQUARES.length; i++) s += w[INSTANCE_TYPE[i]][index(me, opp, INSTANCE_SQUARES[i])];
+        return s;
+    }
+
+    /** Phase bucket of a position with {@code discs} discs, out of {@code phases}. */
+    static int phase(int discs, int phases) {
+        return Math.min(phases - 1, Math.max(0, discs - 4) * phases / 61);
+    }
+
+    /** Base-3 index of {@code squares} with 1 for the mover and 2 for the opponent. */
+    static int index(long me, long opp, int[] squares) {
+        int idx = 0;
+        for (int sq : squares) idx = idx * 3 + (int) ((me >>> sq) & 1) + 2 * (int) ((opp >>> sq) & 1);
+        return idx;
+    }
+
+    private static int[][] diagonal(int startCol, int length) {
+        int[][] d = new int[length][];
+        for (int i = 0; i < length; i++) d[i] = new int[] {i, startCol + i};
+        return d;
+    }
+
+    private static int pow3(int n) {
+        int p = 1;
+        for (int i = 0; i < n; i++) p *= 3;
+        return p;
+    }
+}
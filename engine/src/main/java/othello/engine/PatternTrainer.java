@@ -0,0 +1,271 @@
+package othello.engine;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Offline tools for {@link PatternEvaluator}.
+ * <pre>
+ *   PatternTrainer generate &lt;out.dat&gt; &lt;games&gt; [depth] [randomPlies] [seed]
+ *   PatternTrainer train &lt;out.eval&gt; &lt;data&gt;... [-epochs N] [-phases P] [-lr R]
+ * </pre>
+ * {@code generate} plays self-play games on all cores and writes every
+ * position with the final disc margin for the side to move, as
+ * {@value #RECORD_BYTES}-byte records ({@code long mover, long opponent,
+ * byte margin}, big-endian). {@code train} fits the pattern weights to
+ * those margins by stochastic gradient descent on the squared error. It
+ * streams its inputs once per epoch, so data size is bounded by disk, not
+ * memory; files ending in {@code .txt} are read as
+ * {@code board X|O margin} lines instead.
+ */
+public final class PatternTrainer {
+
+    static final int RECORD_BYTES = 17;
+
+    private PatternTrainer() {}
+
+    public static void main(String[] args) throws Exception {
+        if (args.length >= 3 && args[0].equals("generate")) {
+            generate(Paths.get(args[1]), Integer.parseInt(args[2]),
+                     args.length > 3 ? Integer.parseInt(args[3]) : 4,
+                     args.length > 4 ? Integer.parseInt(args[4]) : 10,
+                     args.length > 5 ? Long.parseLong(args[5]) : 1);
+        } else if (args.length >= 3 && args[0].equals("train")) {
+            int epochs = 10, phases = 6;
+            double lr = 0.2;
+            List<Path> data = new ArrayList<>();
+            for (int i = 2; i < args.length; i++) {
+                switch (args[i]) {
+                    case "-epochs": epochs = Integer.parseInt(args[++i]); break;
+                    case "-phases": phases = Integer.parseInt(args[++i]); break;
+                    case "-lr": lr = Double.parseDouble(args[++i]); break;
+                    default: data.add(Paths.get(args[i]));
+                }
+            }
+            train(Paths.get(args[1]), data, epochs, phases, lr);
+        } else {
+            System.err.println("usage: PatternTrainer generate <out.dat> <games> [depth] [randomPlies] [seed]");
+            System.err.println("       PatternTrainer train <out.eval> <data>... [-epochs N] [-phases P] [-lr R]");
+            System.exit(2);
+        }
+    }
+
+    /**
+     * Self-play from random openings of up to {@code randomPlies} plies,
+     * searched to {@code depth}. Files generated with different seeds hold
+     * different games and can be trained on together.
+     */
+    static void generate(Path out, int games, int depth, int randomPlies, long seed) throws Exception {
+        int workers = Runtime.getRuntime().availableProcessors();
+        ExecutorService pool = Executors.newFixedThreadPool(workers);
+        ThreadLocal<AIPlayer> engines = ThreadLocal.withInitial(() -> {
+            AIPlayer ai = new AIPlayer(16);
+            ai.threads = 1;
+            ai.maxDepth = depth;
+            ai.moveTimeMs = 60_000;
+            ai.endgameEmpties = 12;
+            return ai;
+        });
+        AtomicInteger written = new AtomicInteger();
+        long start = System.nanoTime();
+        try (DataOutputStream dos = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(out), 1 << 16))) {
+            List<Future<?>> jobs = new ArrayList<>();
+            for (int g = 0; g < games; g++) {
+                long gameSeed = seed * 1_000_003L + g;
+                jobs.add(pool.submit(() -> {
+                    long[] rec = playGame(engines.get(), new SplittableRandom(gameSeed), randomPlies);
+                    synchronized (dos) {
+                        for (int i = 0; i < rec.length; i += 3) {
+                            dos.writeLong(rec[i]);
+                            dos.writeLong(rec[i + 1]);
+                            dos.writeByte((int) rec[i + 2]);
+                        }
+                    }
+                    written.addAndGet(rec.length / 3);
+                    return null;
+                }));
+            }
+            for (Future<?> f : jobs) f.get();
+        } finally {
+            pool.shutdown();
+        }
+        System.out.printf("%d games, %,d positions in %.1f s%n", games, written.get(), (System.nanoTime() - start) / 1e9);
+    }
+
+    /** One game as (mover, opponent, final margin for mover) triples, for every position with a legal move. */
+    static long[] playGame(AIPlayer ai, SplittableRandom rnd, int randomPlies) {
+        ai.newGame();
+        Game g = new Game();
+        long[] movers = new long[64], opps = new long[64];
+        int[] colour = new int[64];
+        int n = 0, plies = rnd.nextInt(randomPlies + 1);
+        while (!g.isOver()) {
+            int player = g.toMove();
+            Position pos = g.position();
+            movers[n] = pos.discs(player);
+            opps[n] = pos.discs(3 - player);
+            colour[n++] = player;
+            long moves = g.validMoves();
+            int sq;
+            if (g.history().length < plies) {
+                for (int k = rnd.nextInt(Long.bitCount(moves)); k > 0; k--) moves &= moves - 1;
+                sq = Long.numberOfTrailingZeros(moves);
+            } else {
+                sq = ai.getBestMove(pos, player);
+            }
+            g.play(sq);
+        }
+        int margin = g.count(Position.BLACK) - g.count(Position.WHITE);
+        long[] rec = new long[n * 3];
+        for (int i = 0; i < n; i++) {
+            rec[3 * i] = movers[i];
+            rec[3 * i + 1] = opps[i];
+            rec[3 * i + 2] = colour[i] == Position.BLACK ? margin : -margin;
+        }
+        return rec;
+    }
+
+    /** Samples held back and drawn at random, so consecutive updates rarely come from the same game. */
+    static final int SHUFFLE_BUFFER = 1 << 16;
+
+    static void train(Path out, List<Path> data, int epochs, int phases, double lr) throws IOException {
+        float[][][] w = new float[phases][PatternEvaluator.TYPES][];
+        for (int p = 0; p < phases; p++)
+            for (int t = 0; t < PatternEvaluator.TYPES; t++) w[p][t] = new float[PatternEvaluator.TABLE_SIZE[t]];
+        int[] idx = new int[PatternEvaluator.INSTANCE_SQUARES.length];
+        long[] bufMe = new long[SHUFFLE_BUFFER], bufOpp = new long[SHUFFLE_BUFFER];
+        int[] bufMargin = new int[SHUFFLE_BUFFER];
+        SplittableRandom rnd = new SplittableRandom(1);
+
+        for (int epoch = 1; epoch <= epochs; epoch++) {
+            // Step size shrinks each epoch so the weights settle instead of chasing the last games read;
+            // it is shared out over the instances so lr is the fraction of the error corrected per sample
+            float rate = (float) (lr / Math.sqrt(epoch) / idx.length);
+            double sq = 0;
+            long count = 0;
+            int held = 0;
+            long start = System.nanoTime();
+            for (Path file : data) {
+                try (Samples in = Samples.open(file)) {
+                    while (in.next()) {
+                        if (held < SHUFFLE_BUFFER) {
+                            bufMe[held] = in.me; bufOpp[held] = in.opp; bufMargin[held++] = in.margin;
+                            continue;
+                        }
+                        int k = rnd.nextInt(SHUFFLE_BUFFER);
+                        sq += update(w, idx, bufMe[k], bufOpp[k], bufMargin[k], rate);
+                        count++;
+                        bufMe[k] = in.me; bufOpp[k] = in.opp; bufMargin[k] = in.margin;
+                    }
+                }
+            }
+            while (held > 0) {
+                int k = rnd.nextInt(held--);
+                sq += update(w, idx, bufMe[k], bufOpp[k], bufMargin[k], rate);
+                count++;
+                bufMe[k] = bufMe[held]; bufOpp[k] = bufOpp[held]; bufMargin[k] = bufMargin[held];
+            }
+            System.out.printf("epoch %d: %,d positions, rms error %.2f discs, %.1f s%n",
+                              epoch, count, Math.sqrt(sq / Math.max(1, count)), (System.nanoTime() - start) / 1e9);
+        }
+        write(out, w);
+    }
+
+    /** One gradient step towards {@code margin}; returns the squared error before it. */
+    private static double update(float[][][] w, int[] idx, long me, long opp, int margin, float rate) {
+        float[][] pw = w[PatternEvaluator.phase(Long.bitCount(me | opp), w.length)];
+        float pred = 0;
+        for (int i = 0; i < idx.length; i++) {
+            idx[i] = PatternEvaluator.index(me, opp, PatternEvaluator.INSTANCE_SQUARES[i]);
+            pred += pw[PatternEvaluator.INSTANCE_TYPE[i]][idx[i]];
+        }
+        float err = margin - pred;
+        float step = rate * err;
+        for (int i = 0; i < idx.length; i++) pw[PatternEvaluator.INSTANCE_TYPE[i]][idx[i]] += step;
+        return (double) err * err;
+    }
+
+    static void write(Path out, float[][][] w) throws IOException {
+        try (DataOutputStream dos = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(out), 1 << 16))) {
+            dos.writeInt(PatternEvaluator.MAGIC);
+            dos.writeInt(w.length);
+            dos.writeInt(PatternEvaluator.TYPES);
+            for (float[][] phase : w)
+                for (float[] table : phase)
+                    for (float v : table)
+                        dos.writeShort(Math.max(Short.MIN_VALUE, Math.min(Short.MAX_VALUE, Math.round(v * PatternEvaluator.SCALE))));
+        }
+    }
+
+    /** Sequential reader over one training file, binary or text. */
+    private abstract static class Samples implements AutoCloseable {
+        long me, opp;
+        int margin;
+
+        abstract boolean next() throws IOException;
+
+        @Override public abstract void close() throws IOException;
+
+        static Samples open(Path file) throws IOException {
+            return file.toString().endsWith(".txt") ? new Text(file) : new Binary(file);
+        }
+    }
+
+    private static final class Binary extends Samples {
+        private final DataInputStream in;
+
+        Binary(Path file) throws IOException {
+            in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file), 1 << 16));
+        }
+
+        @Override boolean next() throws IOException {
+            try {
+                me = in.readLong();
+                opp = in.readLong();
+                margin = in.readByte();
+                return true;
+            } catch (EOFException e) {
+                return false;
+            }
+        }
+
+        @Override public void close() throws IOException { in.close(); }
+    }
+
+    private static final class Text extends Samples {
+        private final BufferedReader in;
+
+        Text(Path file) throws IOException { in = Files.newBufferedReader(file); }
+
+        @Override boolean next() throws IOException {
+            for (String line; (line = in.readLine()) != null; ) {
+                String[] f = line.trim().split("\\s+");
+                if (f.length < 3 || f[0].startsWith("#")) continue;
+                Position pos = Position.parse(f[0]);
+                int player = f[1].equalsIgnoreCase("O") ? Position.WHITE : Position.BLACK;
+                me = pos.discs(player);
+                opp = pos.discs(3 - player);
+                margin = Integer.parseInt(f[2]);
+                return true;
+            }
+            return false;
+        }
+
+        @Override public void close() throws IOException { in.close(); }
+    }
+}
@@ -0,0 +1,69 @@
+package othello.engine;
+
+/**
+ * Move-generation validator and timer: counts the leaf nodes of the full
+ * game tree to a fixed number of plies. A forced pass counts as a ply and
+ * a finished game counts as one leaf, which is the convention the
+ * published counts below use.
+ * <p>
+ * Usage: {@code java othello.engine.Perft <depth> [board X|O]}. From the
+ * start position each depth is checked against the known count.
+ */
+public final class Perft {
+
+    /** Leaf counts from the standard start position, index = depth. */
+    static final long[] KNOWN = {
+        1L, 4L, 12L, 56L, 244L, 1396L, 8200L, 55092L, 390216L, 3005288L,
+        24571284L, 212258800L, 1939886636L, 18429641748L, 184042084512L
+    };
+
+    private Perft() {}
+
+    public static long perft(long p, long o, int depth) {
+        return perft(p, o, depth, false);
+    }
+
+    private static long perft(long p, long o, int depth, boolean passed) {
+        if (depth == 0) return 1;
+        long moves = Bitboard.moves(p, o);
+        if (moves == 0) {
+            if (passed) return 1;
+            return perft(o, p, depth - 1, true);
+        }
+        if (depth == 1) return Long.bitCount(moves);
+        long n = 0;
+        for (; moves != 0; moves &= moves - 1) {
+            int sq = Long.numberOfTrailingZeros(moves);
+            long f = Bitboard.flips(p, o, sq);
+            n += perft(o & ~f, p | f | (1L << sq), depth - 1, false);
+        }
+        return n;
+    }
+
+    public static void main(String[] args) {
+        if (args.length < 1) {
+            System.err.println("usage: Perft <depth> [board X|O]");
+            System.exit(2);
+        }
+        int depth = Integer.parseInt(args[0]);
+        Position pos = args.length > 1 ? Position.parse(args[1]) : Position.initial();
+        boolean blackToMove = args.length < 3 || !args[2].equalsIgnoreCase("O");
+        boolean fromStart = args.length < 2;
+        long p = blackToMove ? pos.black : pos.white, o = blackToMove ? pos.white : pos.black;
+
+        boolean ok = true;
+        for (int d = 1; d <= depth; d++) {
+            long t = System.nanoTime();
+            long n = perft(p, o, d);
+            double ms = (System.nanoTime() - t) / 1e6;
+            String check = "";
+            if (fromStart && d < KNOWN.length) {
+                boolean match = n == KNOWN[d];
+                ok &= match;
+                check = match ? "  ok" : "  MISMATCH (expected " + KNOWN[d] + ")";
+            }
+            System.out.printf("perft(%2d) = %,16d  %10.1f ms  %8.1f Mleaves/s%s%n", d, n, ms, n / ms / 1000, check);
+        }
+        if (!ok) System.exit(1);
+    }
+}
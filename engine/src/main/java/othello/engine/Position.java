@@ -0,0 +1,94 @@
+package othello.engine;
+
+/**
+ * Immutable two-{@code long} board position. The Swing board keeps its
+ * {@code int[][]} grid and converts here once per AI turn; the search
+ * itself only ever touches the two bitboards.
+ */
+public final class Position {
+
+    public static final int EMPTY = 0;
+    public static final int BLACK = 1;
+    public static final int WHITE = 2;
+
+    public final long black;
+    public final long white;
+
+    public Position(long black, long white) {
+        this.black = black;
+        this.white = white;
+    }
+
+    public static Position initial() {
+        return new Position((1L << 28) | (1L << 35), (1L << 27) | (1L << 36));
+    }
+
+    public static Position of(int[][] board) {
+        long b = 0, w = 0;
+        for (int r = 0; r < 8; r++) for (int c = 0; c < 8; c++) {
+            long bit = 1L << Bitboard.square(r, c);
+            if (board[r][c] == BLACK) b |= bit;
+            else if (board[r][c] == WHITE) w |= bit;
+        }
+        return new Position(b, w);
+    }
+
+    /**
+     * Parses the 64-character board string used by endgame test suites:
+     * row by row from a1, {@code X} or {@code *} for BLACK, {@code O} for
+     * WHITE and {@code -} or {@code .} for empty.
+     */
+    public static Position parse(String s) {
+        if (s.length() < 64) throw new IllegalArgumentException("board needs 64 squares: " + s);
+        long b = 0, w = 0;
+        for (int sq = 0; sq < 64; sq++) {
+            char ch = s.charAt(sq);
+            if (ch == 'X' || ch == 'x' || ch == '*') b |= 1L << sq;
+            else if (ch == 'O' || ch == 'o') w |= 1L << sq;
+            else if (ch != '-' && ch != '.') throw new IllegalArgumentException("bad square '" + ch + "' at " + sq);
+        }
+        return new Position(b, w);
+    }
+
+    public int[][] toArray() {
+        int[][] board = new int[8][8];
+        for (int sq = 0; sq < 64; sq++) board[Bitboard.row(sq)][Bitboard.col(sq)] = get(sq);
+        return board;
+    }
+
+    public int get(int sq) {
+        long bit = 1L << sq;
+        return (black & bit) != 0 ? BLACK : (white & bit) != 0 ? WHITE : EMPTY;
+    }
+
+    public long discs(int player) { return player == BLACK ? black : white; }
+
+    public long moves(int player) {
+        return player == BLACK ? Bitboard.moves(black, white) : Bitboard.moves(white, black);
+    }
+
+    /** Plays {@code sq} for {@code player}; the move must be legal. */
+    public Position play(int player, int sq) {
+        long bit = 1L << sq;
+        if (player == BLACK) {
+            long f = Bitboard.flips(black, white, sq);
+            return new Position(black | f | bit, white & ~f);
+        }
+        long f = Bitboard.flips(white, black, sq);
+        return new Position(black & ~f, white | f | bit);
+    }
+
+    public int count(int player) { return Long.bitCount(discs(player)); }
+    public int empties() { return 64 - Long.bitCount(black | white); }
+
+    @Override public String toString() {
+        StringBuilder sb = new StringBuilder(64);
+        for (int sq = 0; sq < 64; sq++) sb.append("-XO".charAt(get(sq)));
+        return sb.toString();
+    }
+
+    @Override public boolean equals(Object o) {
+        return o instanceof Position && ((Position) o).black == black && ((Position) o).white == white;
+    }
+    @Override public int hashCode() { return Long.hashCode(black * 31 + white); }
+}
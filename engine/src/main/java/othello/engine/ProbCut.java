@@ -0,0 +1,347 @@
+package othello.engine;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.DoubleStream;
+
+/**
+ * Multi-ProbCut parameters. A deep search result is well predicted by a
+ * shallow one, {@code deep ≈ a * shallow + b} with error {@code sigma}, so
+ * before searching a node deeply {@link AIPlayer} asks a cheap null-window
+ * question at the shallow depth; if the answer puts the deep result
+ * outside the window by more than {@link AIPlayer#selectivity} sigmas, the
+ * node is cut. "Multi": {@code a}, {@code b} and {@code sigma} are kept per
+ * game phase and depth pair, and deep nodes try a cheap check before a
+ * more accurate one.
+ * <pre>
+ *   ProbCut fit &lt;out.mpc&gt; [-games N] [-depth D] [-seed S] [-eval file]
+ *   ProbCut test &lt;table.mpc&gt; [-positions N] [-depth D] [-time MS] [-seed S] [-eval file] [-t t1,t2...]
+ * </pre>
+ * {@code fit} plays self-play games, takes positions from them, has the
+ * engine score each one with a full window at every depth up to {@code D}
+ * and fits every pair by least squares. The numbers belong to the
+ * evaluation they were fitted with: a table fitted with {@code -eval} goes
+ * with that pattern file. {@code test} searches a fixed suite from other
+ * games to a fixed depth and for a fixed time at each selectivity and
+ * reports nodes, depth reached and how often the move or score changed.
+ * <p>
+ * The table is text: a header line, then one
+ * {@code phase deep shallow a b sigma samples} line per fitted pair.
+ */
+public final class ProbCut {
+
+    /** Shallowest node searched selectively; below it a check costs about what it saves. */
+    static final int MIN_DEPTH = 3;
+    /** Game phases, by empty squares: {@code (empties - 1) / 10}. */
+    static final int PHASES = 6;
+    static final double DEFAULT_SELECTIVITY = 1.5;
+    /** Pairs fitted on fewer positions are left out of the table. */
+    static final int MIN_SAMPLES = 30;
+    private static final String HEADER = "# othello multi-probcut: phase deep shallow a b sigma samples";
+    private static final Check[] NONE = {};
+
+    /** One shallow search that may cut a deeper node. */
+    static final class Check {
+        final int shallow;
+        final double a, b, sigma;
+
+        Check(int shallow, double a, double b, double sigma) {
+            this.shallow = shallow;
+            this.a = a;
+            this.b = b;
+            this.sigma = sigma;
+        }
+    }
+
+    /** {@code checks[phase][depth]}, cheapest first, for every depth a search can have. */
+    private final Check[][][] checks = new Check[PHASES][MoveOrder.MAX_PLY + 1][];
+
+    /** {@code fitted[phase][deep][shallow]}: {a, b, sigma}, or {@code null} where there was too little data. */
+    private ProbCut(double[][][][] fitted) {
+        int maxDeep = fitted[0].length - 1;
+        for (int phase = 0; phase < PHASES; phase++) {
+            for (int depth = 0; depth <= MoveOrder.MAX_PLY; depth++) {
+                // Beyond the fitted depths, the deepest row of the same parity with the same depth gaps
+                int row = depth, shift = 0;
+                if (depth > maxDeep) {
+                    row = maxDeep - ((maxDeep ^ depth) & 1);
+                    shift = depth - row;
+                }
+                List<Check> list = new ArrayList<>();
+                if (depth >= MIN_DEPTH && row >= MIN_DEPTH) {
+                    for (int shallow : shallowDepths(row)) {
+                        double[] f = nearest(fitted, phase, row, shallow);
+                        if (f != null) list.add(new Check(shallow + shift, f[0], f[1], f[2]));
+                    }
+                }
+                checks[phase][depth] = list.isEmpty() ? NONE : list.toArray(NONE);
+            }
+        }
+    }
+
+    /**
+     * Shallow depths checked before a search to {@code deep}, cheapest
+     * first: about half the depth, of the same parity because Othello
+     * scores swing with the side to move at the horizon, and for deep
+     * nodes one two plies shallower before it.
+     */
+    static int[] shallowDepths(int deep) {
+        int s = deep / 2;
+        if (((s ^ deep) & 1) != 0) s--;
+        if (s < 1) return new int[0];
+        return deep >= 8 && s > 2 ? new int[] {s - 2, s} : new int[] {s};
+    }
+
+    /** The pair's parameters in {@code phase}, or failing that in the nearest phase that has them. */
+    private static double[] nearest(double[][][][] fitted, int phase, int deep, int shallow) {
+        for (int d = 0; d < PHASES; d++) {
+            for (int p : new int[] {phase - d, phase + d}) {
+                if (p >= 0 && p < PHASES && fitted[p][deep][shallow] != null) return fitted[p][deep][shallow];
+            }
+        }
+        return null;
+    }
+
+    static int phase(int empties) {
+        return Math.min(PHASES - 1, Math.max(0, (empties - 1) / 10));
+    }
+
+    /** Checks for a node searched to {@code depth} with {@code empties} empty squares; may be empty. */
+    Check[] checks(int empties, int depth) {
+        return checks[phase(empties)][Math.min(depth, MoveOrder.MAX_PLY)];
+    }
+
+    public static ProbCut open(Path file) throws IOException {
+        List<double[]> rows = new ArrayList<>();
+        int maxDeep = 0;
+        try (BufferedReader in = Files.newBufferedReader(file, StandardCharsets.US_ASCII)) {
+            String first = in.readLine();
+            if (first == null || !first.equals(HEADER)) throw new IOException("not a ProbCut table");
+            for (String line; (line = in.readLine()) != null; ) {
+                line = line.trim();
+                if (line.isEmpty() || line.startsWith("#")) continue;
+                String[] f = line.split("\\s+");
+                if (f.length != 7) throw new IOException("bad line: " + line);
+                double[] r = new double[6];
+                for (int i = 0; i < 6; i++) r[i] = Double.parseDouble(f[i]);
+                if (r[0] < 0 || r[0] >= PHASES || r[2] < 1 || r[2] >= r[1] || r[1] > MoveOrder.MAX_PLY || !(r[3] > 0) || !(r[5] >= 0)) {
+                    throw new IOException("bad line: " + line);
+                }
+                rows.add(r);
+                maxDeep = Math.max(maxDeep, (int) r[1]);
+            }
+        } catch (NumberFormatException e) {
+            throw new IOException("bad number in " + file, e);
+        }
+        if (rows.isEmpty()) throw new IOException("empty ProbCut table");
+        double[][][][] fitted = new double[PHASES][maxDeep + 1][maxDeep + 1][];
+        for (double[] r : rows) fitted[(int) r[0]][(int) r[1]][(int) r[2]] = new double[] {r[3], r[4], r[5]};
+        return new ProbCut(fitted);
+    }
+
+    /** Opens {@code file} if it exists and is a valid table, otherwise returns {@code null}. */
+    public static ProbCut openIfExists(Path file) {
+        if (!Files.isRegularFile(file)) return null;
+        try {
+            return open(file);
+        } catch (IOException e) {
+            System.err.println("Ignoring ProbCut table " + file + ": " + e.getMessage());
+            return null;
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        if (args.length >= 2 && (args[0].equals("fit") || args[0].equals("test"))) {
+            int games = 300, positions = 200, depth = args[0].equals("fit") ? 10 : 8;
+            long seed = args[0].equals("fit") ? 1 : 1000, timeMs = 100;
+            String eval = null;
+            double[] ts = {0, 1, 1.5, 2, 2.5, 3};
+            for (int i = 2; i < args.length; i++) {
+                switch (args[i]) {
+                    case "-games": games = Integer.parseInt(args[++i]); break;
+                    case "-positions": positions = Integer.parseInt(args[++i]); break;
+                    case "-depth": depth = Integer.parseInt(args[++i]); break;
+                    case "-time": timeMs = Long.parseLong(args[++i]); break;
+                    case "-seed": seed = Long.parseLong(args[++i]); break;
+                    case "-eval": eval = args[++i]; break;
+                    case "-t": {
+                        String[] f = args[++i].split(",");
+                        ts = new double[f.length];
+                        for (int k = 0; k < f.length; k++) ts[k] = Double.parseDouble(f[k]);
+                        break;
+                    }
+                    default: throw new IllegalArgumentException("unknown option " + args[i]);
+                }
+            }
+            PatternEvaluator patterns = null;
+            if (eval != null) {
+                patterns = PatternEvaluator.openIfExists(Paths.get(eval));
+                if (patterns == null) throw new IllegalArgumentException("cannot load pattern file " + eval);
+            }
+            if (args[0].equals("fit")) fit(Paths.get(args[1]), games, depth, seed, patterns);
+            else test(open(Paths.get(args[1])), positions, depth, timeMs, seed, patterns, ts);
+        } else {
+            System.err.println("usage: ProbCut fit <out.mpc> [-games N] [-depth D] [-seed S] [-eval file]");
+            System.err.println("       ProbCut test <table.mpc> [-positions N] [-depth D] [-time MS] [-seed S] [-eval file] [-t t1,t2...]");
+            System.exit(2);
+        }
+    }
+
+    /** Positions from self-play games, about one every five plies, as {mover, opponent} pairs. */
+    static List<long[]> samples(int games, long seed, int minEmpties) {
+        AIPlayer ai = new AIPlayer(16);
+        ai.threads = 1;
+        ai.maxDepth = 2;
+        ai.moveTimeMs = 60_000;
+        ai.endgameEmpties = 0;
+        List<long[]> out = new ArrayList<>();
+        SplittableRandom rnd = new SplittableRandom(seed);
+        for (int g = 0; g < games; g++) {
+            long[] rec = PatternTrainer.playGame(ai, rnd, 10);
+            for (int i = rnd.nextInt(5); 3 * i < rec.length; i += 3 + rnd.nextInt(5)) {
+                if (64 - Long.bitCount(rec[3 * i] | rec[3 * i + 1]) >= minEmpties) out.add(new long[] {rec[3 * i], rec[3 * i + 1]});
+            }
+        }
+        return out;
+    }
+
+    static void fit(Path out, int games, int maxDepth, long seed, PatternEvaluator patterns) throws Exception {
+        long start = System.nanoTime();
+        List<long[]> positions = samples(games, seed, 12);
+        System.err.printf("%,d positions from %d games; searching to depth %d%n", positions.size(), games, maxDepth);
+
+        int workers = Runtime.getRuntime().availableProcessors();
+        ExecutorService pool = Executors.newFixedThreadPool(workers);
+        ThreadLocal<AIPlayer> engines = ThreadLocal.withInitial(() -> {
+            AIPlayer ai = new AIPlayer(20);
+            ai.threads = 1;
+            ai.patterns = patterns;
+            return ai;
+        });
+        List<Future<int[]>> jobs = new ArrayList<>();
+        try {
+            for (long[] p : positions) {
+                Position pos = new Position(p[0], p[1]);
+                jobs.add(pool.submit(() -> {
+                    AIPlayer ai = engines.get();
+                    ai.newGame();
+                    return ai.depthScores(pos, Position.BLACK, maxDepth);
+                }));
+            }
+            // Sums for a least-squares line per phase and pair: n, x, y, xx, xy, yy
+            double[][][][] sums = new double[PHASES][maxDepth + 1][maxDepth + 1][6];
+            for (int i = 0; i < jobs.size(); i++) {
+                int[] v = jobs.get(i).get();
+                int phase = phase(64 - Long.bitCount(positions.get(i)[0] | positions.get(i)[1]));
+                for (int deep = MIN_DEPTH; deep <= maxDepth; deep++) {
+                    for (int shallow = 1; shallow < deep; shallow++) {
+                        // Proven wins and losses are not on the evaluation's scale
+                        if (Math.abs(v[deep]) >= Evaluator.WIN || Math.abs(v[shallow]) >= Evaluator.WIN) continue;
+                        double x = v[shallow], y = v[deep];
+                        double[] s = sums[phase][deep][shallow];
+                        s[0]++; s[1] += x; s[2] += y; s[3] += x * x; s[4] += x * y; s[5] += y * y;
+                    }
+                }
+                if ((i + 1) % 500 == 0) System.err.printf("%,d / %,d%n", i + 1, jobs.size());
+            }
+
+            try (BufferedWriter w = Files.newBufferedWriter(out, StandardCharsets.US_ASCII)) {
+                w.write(HEADER);
+                w.newLine();
+                for (int phase = 0; phase < PHASES; phase++) {
+                    for (int deep = MIN_DEPTH; deep <= maxDepth; deep++) {
+                        for (int shallow = 1; shallow < deep; shallow++) {
+                            double[] s = sums[phase][deep][shallow];
+                            double n = s[0];
+                            if (n < MIN_SAMPLES) continue;
+                            double sxx = s[3] - s[1] * s[1] / n, sxy = s[4] - s[1] * s[2] / n, syy = s[5] - s[2] * s[2] / n;
+                            if (sxx <= 0) continue;
+                            double a = sxy / sxx, b = (s[2] - a * s[1]) / n;
+                            if (a <= 0) continue;
+                            double sigma = Math.sqrt(Math.max(0, syy - a * sxy) / (n - 2));
+                            w.write(String.format("%d %d %d %.4f %.2f %.2f %d", phase, deep, shallow, a, b, sigma, (long) n));
+                            w.newLine();
+                        }
+                    }
+                }
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+        System.err.printf("fitted in %.1f s%n", (System.nanoTime() - start) / 1e9);
+    }
+
+    /**
+     * Fixed depth: nodes, time, and agreement with the full-width search on
+     * move and score. Fixed time: the depth reached. Selectivity 0 is the
+     * full-width reference and always runs first.
+     */
+    static void test(ProbCut table, int count, int depth, long timeMs, long seed, PatternEvaluator patterns, double[] ts) {
+        // The other rows are compared with selectivity 0, so it always runs, and first
+        ts = DoubleStream.concat(DoubleStream.of(0), Arrays.stream(ts).filter(t -> t != 0)).toArray();
+        List<long[]> all = samples(count, seed, 20);
+        // One position per game's worth of samples, spread over the game
+        List<Position> suite = new ArrayList<>();
+        for (int i = 0; i < all.size() && suite.size() < count; i += Math.max(1, all.size() / count)) {
+            suite.add(new Position(all.get(i)[0], all.get(i)[1]));
+        }
+        AIPlayer ai = new AIPlayer(20);
+        ai.threads = 1;
+        ai.patterns = patterns;
+        ai.probCut = table;
+        ai.endgameEmpties = 0;
+
+        // Untimed pass so the JIT has compiled the search before anything is measured
+        ai.maxDepth = Math.min(depth, 6);
+        ai.moveTimeMs = 24L * 3600 * 1000;
+        for (Position p : suite) { ai.newGame(); ai.getBestMove(p, Position.BLACK); }
+
+        int n = suite.size();
+        int[] refMove = new int[n], refScore = new int[n];
+        System.out.printf("%d positions, %d-%d empties%n", n,
+                          suite.stream().mapToInt(Position::empties).min().orElse(0),
+                          suite.stream().mapToInt(Position::empties).max().orElse(0));
+        System.out.printf("selectivity  depth %d: Mnodes  time(s)  same-move  score-diff   |  %d ms: mean depth%n", depth, timeMs);
+        for (double t : ts) {
+            ai.selectivity = t;
+            ai.maxDepth = depth;
+            ai.moveTimeMs = 24L * 3600 * 1000;
+            long nodes = 0, start = System.nanoTime();
+            int same = 0;
+            double diff = 0;
+            for (int i = 0; i < n; i++) {
+                ai.newGame();
+                int move = ai.getBestMove(suite.get(i), Position.BLACK);
+                nodes += ai.lastNodes;
+                if (t == 0) { refMove[i] = move; refScore[i] = ai.lastScore; }
+                if (move == refMove[i]) same++;
+                diff += Math.abs(ai.lastScore - refScore[i]);
+            }
+            double seconds = (System.nanoTime() - start) / 1e9;
+
+            ai.maxDepth = 60;
+            ai.moveTimeMs = timeMs;
+            double depths = 0;
+            for (Position p : suite) {
+                ai.newGame();
+                ai.getBestMove(p, Position.BLACK);
+                depths += ai.lastDepth;
+            }
+            System.out.printf("%11s  %14.1f  %7.1f  %8.0f%%  %10.1f   |  %15.2f%n",
+                              t == 0 ? "off" : String.valueOf(t), nodes / 1e6, seconds,
+                              100.0 * same / n, diff / n, depths / n);
+        }
+    }
+}
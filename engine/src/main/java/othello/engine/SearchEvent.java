@@ -0,0 +1,40 @@
+package othello.engine;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * One {@link AIPlayer#getBestMove} call, for Flight Recorder. Costs a
+ * single check when no recording is running; start one with e.g.
+ * {@code -XX:StartFlightRecording:filename=othello.jfr} and view it with
+ * {@code jfr print --events othello.Search othello.jfr}.
+ */
+@Name("othello.Search")
+@Label("Othello Search")
+@Category("Othello")
+@Description("Work done by one engine move decision")
+@StackTrace(false)
+final class SearchEvent extends Event {
+
+    @Label("Source") String source;
+    @Label("Depth") int depth;
+    @Label("Score") int score;
+    @Label("Threads") int threads;
+    @Label("Empties") int empties;
+    @Label("Nodes") long nodes;
+    @Label("Nodes per Second") long nodesPerSecond;
+    @Label("Leaf Evaluations") long evals;
+    @Label("TT Probes") long ttProbes;
+    @Label("TT Hits") long ttHits;
+    @Label("Cutoffs") long cutoffs;
+    @Label("First-Move Cutoffs") long firstMoveCutoffs;
+    @Label("Second-Move Cutoffs") long secondMoveCutoffs;
+    @Label("Effective Branching Factor") double ebf;
+    @Label("Ponder Hit") boolean ponderHit;
+    @Label("TT Size") @DataAmount long ttBytes;
+}
@@ -0,0 +1,85 @@
+package othello.engine;
+
+import java.util.Arrays;
+
+/**
+ * What one {@link Engine#getBestMove} call did. Nodes, depth and time are
+ * always filled in; the detailed counters (leaf evaluations, table hits,
+ * cutoffs by move index) only when {@link AIPlayer#collectStats} is on or a
+ * JFR recording has {@code othello.Search} enabled, and are zero otherwise.
+ * For {@link MctsPlayer} nodes are playouts, depth is the deepest line in
+ * the tree and score is the root win rate in percent.
+ */
+public final class SearchStats {
+
+    /** Cutoffs are bucketed by the index of the move that caused them; the last bucket is "this many or later". */
+    public static final int CUTOFF_BUCKETS = 4;
+
+    /** Where the move came from. */
+    public enum Source { NONE, FORCED, BOOK, SOLVER, SEARCH, MCTS }
+
+    public Source source = Source.NONE;
+    public int depth, score, threads;
+    public long nodes, evals, ttProbes, ttHits, elapsedNanos;
+    public final long[] cutoffs = new long[CUTOFF_BUCKETS];
+    /** Whether the detailed counters were collected. */
+    public boolean detailed;
+    /** Whether the move came from a pondering search that predicted the opponent's reply. */
+    public boolean ponderHit;
+
+    void reset() {
+        source = Source.NONE;
+        depth = score = threads = 0;
+        nodes = evals = ttProbes = ttHits = elapsedNanos = 0;
+        Arrays.fill(cutoffs, 0);
+        detailed = false;
+        ponderHit = false;
+    }
+
+    void add(SearchStats s) {
+        nodes += s.nodes; evals += s.evals; ttProbes += s.ttProbes; ttHits += s.ttHits;
+        for (int i = 0; i < CUTOFF_BUCKETS; i++) cutoffs[i] += s.cutoffs[i];
+    }
+
+    void cutoff(int moveIndex) { cutoffs[Math.min(moveIndex, CUTOFF_BUCKETS - 1)]++; }
+
+    public long totalCutoffs() {
+        long n = 0;
+        for (long c : cutoffs) n += c;
+        return n;
+    }
+
+    public double nodesPerSecond() { return elapsedNanos == 0 ? 0 : nodes * 1e9 / elapsedNanos; }
+
+    public double ttHitRate() { return ttProbes == 0 ? 0 : (double) ttHits / ttProbes; }
+
+    /** Share of cutoffs produced by the first move tried; the usual measure of move-ordering quality. */
+    public double firstMoveCutoffRate() {
+        long n = totalCutoffs();
+        return n == 0 ? 0 : (double) cutoffs[0] / n;
+    }
+
+    /**
+     * Effective branching factor, {@code nodes^(1/depth)}: how many children
+     * an average node really searched. Lower means better move ordering.
+     */
+    public double effectiveBranchingFactor() {
+        return depth <= 0 || nodes <= 1 ? 0 : Math.pow(nodes, 1.0 / depth);
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        sb.append(source.name().toLowerCase()).append(ponderHit ? " (ponder)" : "").append(" d=").append(depth);
+        if (source == Source.MCTS) {
+            sb.append(String.format(" %,d playouts %.1f ms %.0f k/s win=%d%%", nodes, elapsedNanos / 1e6, nodesPerSecond() / 1e3, score));
+            return sb.toString();
+        }
+        sb.append(String.format(" %,d nodes %.1f ms %.2f Mn/s", nodes, elapsedNanos / 1e6, nodesPerSecond() / 1e6));
+        if (source == Source.SEARCH) sb.append(String.format(" ebf=%.2f", effectiveBranchingFactor()));
+        if (detailed) {
+            sb.append(String.format(" evals=%,d tt=%.0f%% cut1=%.0f%%", evals, 100 * ttHitRate(), 100 * firstMoveCutoffRate()));
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,155 @@
+package othello.engine;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Headless self-play tournament between engine configurations.
+ * <pre>
+ *   SelfPlay [-games N] [-plies K] [-workers W] [-seed S] config config...
+ * </pre>
+ * Every pair of configurations plays {@code N} game pairs. Each pair
+ * starts from the same random {@code K}-ply opening with colours swapped,
+ * so opening luck cancels out. Games run on {@code W} worker threads
+ * (default: all cores), each with its own engines. Reports per pair:
+ * wins/draws/losses, score, Elo difference with a 95% interval; per
+ * configuration: nodes (playouts for MCTS) per second of search time.
+ */
+public final class SelfPlay {
+
+    private SelfPlay() {}
+
+    /** Running totals for one configuration, shared by all workers. */
+    private static final class Usage {
+        final AtomicLong nodes = new AtomicLong(), nanos = new AtomicLong();
+    }
+
+    /** Results of one pairing, from the first configuration's point of view. */
+    private static final class Pairing {
+        final int a, b;
+        final AtomicInteger wins = new AtomicInteger(), draws = new AtomicInteger(), losses = new AtomicInteger();
+        final AtomicLong discs = new AtomicLong();
+        Pairing(int a, int b) { this.a = a; this.b = b; }
+    }
+
+    public static void main(String[] args) throws Exception {
+        int games = 100, plies = 8, workers = Runtime.getRuntime().availableProcessors();
+        long seed = 1;
+        List<EngineConfig> configs = new ArrayList<>();
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "-games": games = Integer.parseInt(args[++i]); break;
+                case "-plies": plies = Integer.parseInt(args[++i]); break;
+                case "-workers": workers = Integer.parseInt(args[++i]); break;
+                case "-seed": seed = Long.parseLong(args[++i]); break;
+                default: configs.add(EngineConfig.parse(args[i]));
+            }
+        }
+        if (configs.size() < 2) {
+            System.err.println("usage: SelfPlay [-games N] [-plies K] [-workers W] [-seed S] config config...");
+            System.err.println("  config = name:time=100,depth=60,threads=1,endgame=18,wld=false,tt=18,book=path,eval=path,mpc=path,selectivity=1.5");
+            System.err.println("           name:engine=mcts,time=100,threads=1,playouts=N,weighted=true");
+            System.exit(2);
+        }
+
+        Usage[] usage = new Usage[configs.size()];
+        for (int i = 0; i < usage.length; i++) usage[i] = new Usage();
+        List<Pairing> pairings = new ArrayList<>();
+        for (int a = 0; a < configs.size(); a++)
+            for (int b = a + 1; b < configs.size(); b++) pairings.add(new Pairing(a, b));
+
+        // Engines keep big tables, so each worker thread builds its own set once
+        ThreadLocal<Engine[]> engines = ThreadLocal.withInitial(() -> {
+            Engine[] e = new Engine[configs.size()];
+            for (int i = 0; i < e.length; i++) e[i] = configs.get(i).create();
+            return e;
+        });
+
+        ExecutorService pool = Executors.newFixedThreadPool(workers);
+        List<Future<?>> jobs = new ArrayList<>();
+        long start = System.nanoTime();
+        for (Pairing pr : pairings) {
+            for (int g = 0; g < games; g++) {
+                Position opening = randomOpening(plies, seed * 1_000_003L + g);
+                for (int swap = 0; swap < 2; swap++) {
+                    boolean aIsBlack = swap == 0;
+                    jobs.add(pool.submit(() -> {
+                        Engine[] e = engines.get();
+                        int diff = play(opening, e, pr.a, pr.b, aIsBlack, usage);
+                        (diff > 0 ? pr.wins : diff < 0 ? pr.losses : pr.draws).incrementAndGet();
+                        pr.discs.addAndGet(diff);
+                    }));
+                }
+            }
+        }
+        for (Future<?> f : jobs) f.get();
+        pool.shutdown();
+        double seconds = (System.nanoTime() - start) / 1e9;
+
+        System.out.printf("%d games in %.1f s on %d workers%n%n", jobs.size(), seconds, workers);
+        System.out.printf("%-24s %6s %6s %6s %7s %8s %16s%n", "pairing", "W", "D", "L", "score", "discs", "Elo (95%)");
+        for (Pairing pr : pairings) {
+            int w = pr.wins.get(), d = pr.draws.get(), l = pr.losses.get(), n = w + d + l;
+            double s = (w + 0.5 * d) / n;
+            // Standard error of the mean per-game score
+            double var = (w * sq(1 - s) + d * sq(0.5 - s) + l * sq(s)) / n;
+            double se = Math.sqrt(var / n);
+            System.out.printf("%-24s %6d %6d %6d %6.1f%% %+8.2f %7s [%s, %s]%n",
+                configs.get(pr.a) + " vs " + configs.get(pr.b), w, d, l, 100 * s, (double) pr.discs.get() / n,
+                elo(s), elo(s - 1.96 * se), elo(s + 1.96 * se));
+        }
+        System.out.printf("%n%-12s %14s %12s%n", "config", "nodes", "Mnodes/s");
+        for (int i = 0; i < configs.size(); i++) {
+            long nodes = usage[i].nodes.get(), nanos = usage[i].nanos.get();
+            System.out.printf("%-12s %,14d %12.2f%n", configs.get(i), nodes, nanos == 0 ? 0 : nodes * 1e3 / nanos);
+        }
+    }
+
+    /** Plays one game and returns the final disc difference from configuration {@code a}'s side. */
+    static int play(Position opening, Engine[] engines, int a, int b, boolean aIsBlack, Usage[] usage) {
+        Engine black = engines[aIsBlack ? a : b], white = engines[aIsBlack ? b : a];
+        black.newGame();
+        white.newGame();
+        Game game = new Game(opening, Position.BLACK);
+        while (!game.isOver()) {
+            boolean blackToMove = game.toMove() == Position.BLACK;
+            Engine ai = blackToMove ? black : white;
+            Usage u = usage[blackToMove == aIsBlack ? a : b];
+            long t = System.nanoTime();
+            int sq = ai.getBestMove(game.position(), game.toMove());
+            u.nanos.addAndGet(System.nanoTime() - t);
+            u.nodes.addAndGet(ai.stats().nodes);
+            game.play(sq);
+        }
+        int diff = game.count(Position.BLACK) - game.count(Position.WHITE);
+        return aIsBlack ? diff : -diff;
+    }
+
+    /** {@code plies} random legal moves from the start, BLACK to move at the end. */
+    static Position randomOpening(int plies, long seed) {
+        SplittableRandom rnd = new SplittableRandom(seed);
+        while (true) {
+            Game g = new Game();
+            for (int i = 0; i < plies && !g.isOver(); i++) {
+                long moves = g.validMoves();
+                for (int k = rnd.nextInt(Long.bitCount(moves)); k > 0; k--) moves &= moves - 1;
+                g.play(Long.numberOfTrailingZeros(moves));
+            }
+            if (!g.isOver() && g.toMove() == Position.BLACK) return g.position();
+        }
+    }
+
+    private static double sq(double x) { return x * x; }
+
+    private static String elo(double score) {
+        if (score <= 0) return "-inf";
+        if (score >= 1) return "+inf";
+        return String.format("%+.0f", -400 * Math.log10(1 / score - 1));
+    }
+}
@@ -0,0 +1,62 @@
+package othello.engine;
+
+/**
+ * The 8 symmetries of the board. Symmetry {@code s} (0..7) transposes the
+ * board if bit 2 is set, then mirrors columns if bit 1 is set, then flips
+ * rows if bit 0 is set.
+ */
+public final class Symmetry {
+
+    public static final int COUNT = 8;
+
+    private Symmetry() {}
+
+    public static long apply(int s, long x) {
+        if ((s & 4) != 0) x = transpose(x);
+        if ((s & 2) != 0) x = mirrorColumns(x);
+        if ((s & 1) != 0) x = Long.reverseBytes(x);
+        return x;
+    }
+
+    /** Undoes {@link #apply}: the same steps in reverse order. */
+    public static long invert(int s, long x) {
+        if ((s & 1) != 0) x = Long.reverseBytes(x);
+        if ((s & 2) != 0) x = mirrorColumns(x);
+        if ((s & 4) != 0) x = transpose(x);
+        return x;
+    }
+
+    public static int applySquare(int s, int sq) { return Long.numberOfTrailingZeros(apply(s, 1L << sq)); }
+    public static int invertSquare(int s, int sq) { return Long.numberOfTrailingZeros(invert(s, 1L << sq)); }
+
+    /**
+     * The symmetry that maps {@code (p, o)} to its canonical form: the
+     * smallest {@code p}, then smallest {@code o}, compared unsigned.
+     */
+    public static int canonical(long p, long o) {
+        int best = 0;
+        long bp = p, bo = o;
+        for (int s = 1; s < COUNT; s++) {
+            long tp = apply(s, p), to = apply(s, o);
+            int c = Long.compareUnsigned(tp, bp);
+            if (c < 0 || c == 0 && Long.compareUnsigned(to, bo) < 0) { best = s; bp = tp; bo = to; }
+        }
+        return best;
+    }
+
+    static long mirrorColumns(long x) {
+        x = ((x >>> 1) & 0x5555555555555555L) | ((x & 0x5555555555555555L) << 1);
+        x = ((x >>> 2) & 0x3333333333333333L) | ((x & 0x3333333333333333L) << 2);
+        x = ((x >>> 4) & 0x0F0F0F0F0F0F0F0FL) | ((x & 0x0F0F0F0F0F0F0F0FL) << 4);
+        return x;
+    }
+
+    /** Swaps rows and columns (reflection in the a1-h8 diagonal). */
+    static long transpose(long x) {
+        long t;
+        t = 0x0F0F0F0F00000000L & (x ^ (x << 28)); x ^= t ^ (t >>> 28);
+        t = 0x3333000033330000L & (x ^ (x << 14)); x ^= t ^ (t >>> 14);
+        t = 0x5500550055005500L & (x ^ (x << 7));  x ^= t ^ (t >>> 7);
+        return x;
+    }
+}
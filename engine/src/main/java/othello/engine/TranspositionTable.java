@@ -0,0 +1,81 @@
+package othello.engine;
+
+import java.util.Arrays;
+
+/**
+ * Fixed-size transposition table held in two parallel {@code long[]} arrays.
+ * <p>
+ * Each slot packs score, depth, bound, best move and search generation into
+ * one {@code long}; the key array stores {@code key ^ data} so a torn write
+ * from another thread simply fails verification on probe.
+ * <p>
+ * Replacement: a slot is overwritten when it is empty, holds the same
+ * position, was written by an earlier search, or holds a result that is not
+ * deeper than the new one. Otherwise the deeper entry from the current
+ * search is kept.
+ */
+public final class TranspositionTable {
+
+    public static final int EXACT = 0;
+    public static final int LOWER = 1;
+    public static final int UPPER = 2;
+
+    /** Depth recorded for results whose whole subtree reached the end of the game. */
+    public static final int SOLVED = 0xFF;
+
+    public static final int DEFAULT_BITS = 20;
+
+    private static final long VALID = 1L << 63;
+
+    private final long[] keys;
+    private final long[] data;
+    private final int mask;
+    private int generation;
+
+    /** Creates a table of {@code 2^bits} entries (16 bytes each). */
+    public TranspositionTable(int bits) {
+        if (bits < 4 || bits > 30) throw new IllegalArgumentException("bits must be in [4, 30]: " + bits);
+        keys = new long[1 << bits];
+        data = new long[1 << bits];
+        mask = (1 << bits) - 1;
+    }
+
+    /** Returns the packed entry for {@code key}, or {@code 0} on a miss. */
+    public long probe(long key) {
+        int i = (int) key & mask;
+        long d = data[i];
+        return d != 0 && (keys[i] ^ d) == key ? d : 0;
+    }
+
+    public void store(long key, int depth, int bound, int score, int move) {
+        int i = (int) key & mask;
+        long old = data[i];
+        if (old != 0 && (keys[i] ^ old) != key && generation(old) == (generation & 0xFF) && depth(old) > depth) return;
+        long d = VALID
+               | ((long) (generation & 0xFF) << 49)
+               | ((long) (move + 1) << 42)
+               | ((long) bound << 40)
+               | ((long) (depth & 0xFF) << 32)
+               | (score & 0xFFFFFFFFL);
+        data[i] = d;
+        keys[i] = key ^ d;
+    }
+
+    /** Marks the start of a new search; older entries become preferred victims. */
+    public void newSearch() { generation++; }
+
+    public void clear() {
+        Arrays.fill(keys, 0);
+        Arrays.fill(data, 0);
+        generation = 0;
+    }
+
+    public int capacity() { return mask + 1; }
+
+    public static int score(long entry) { return (int) entry; }
+    public static int depth(long entry) { return (int) (entry >>> 32) & 0xFF; }
+    public static int bound(long entry) { return (int) (entry >>> 40) & 3; }
+    /** Best move square, or {@code -1} if none was recorded. */
+    public static int move(long entry) { return ((int) (entry >>> 42) & 0x7F) - 1; }
+    private static int generation(long entry) { return (int) (entry >>> 49) & 0xFF; }
+}
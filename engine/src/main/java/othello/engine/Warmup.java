@@ -0,0 +1,96 @@
+package othello.engine;
+
+import java.util.List;
+
+/**
+ * Throw-away searches that get the engine's hot paths JIT-compiled before
+ * the first real move: short searches from the opening to endgame solves,
+ * on a private single-threaded {@link AIPlayer} with a small table. The
+ * player's own table and history are never touched; only the (read-only)
+ * evaluation tables are shared.
+ * <p>
+ * Meant to {@link #run} on a low-priority background thread at startup;
+ * {@link #cancel} stops it as soon as a real search needs the CPU.
+ * <p>
+ * Usage: {@code java othello.engine.Warmup [budgetMs]} measures the first
+ * search of a fresh JVM, without ({@code 0}) and with a warm-up first.
+ */
+public final class Warmup implements Runnable {
+
+    /** Default total warm-up time in milliseconds. */
+    public static final long DEFAULT_BUDGET_MS = 1500;
+    /** Time per warm-up search: long enough to reach the deep, compiled loops. */
+    private static final long SEARCH_MS = 120;
+    /** Empty squares of the warm-up positions: opening, midgame, just above and inside the solver. */
+    private static final int[] EMPTIES = {50, 40, 30, 22, 16};
+
+    private final AIPlayer ai = new AIPlayer(16);
+    private final long budgetMs;
+    private volatile boolean cancelled;
+    private volatile long elapsedMs = -1;
+    private int searches;
+
+    public Warmup(PatternEvaluator patterns, ProbCut probCut, long budgetMs) {
+        ai.patterns = patterns;
+        ai.probCut = probCut;
+        ai.threads = 1;
+        ai.moveTimeMs = SEARCH_MS;
+        this.budgetMs = budgetMs;
+    }
+
+    @Override
+    public void run() {
+        long start = System.nanoTime(), end = start + budgetMs * 1_000_000L;
+        outer:
+        for (int round = 0; ; round++) {
+            for (int empties : EMPTIES) {
+                if (cancelled || System.nanoTime() >= end) break outer;
+                // A new position every round, so nothing is answered from the table
+                List<Position> pos = ParallelBench.positions(1, empties, 0x5EED + round);
+                ai.newGame();
+                ai.getBestMove(pos.get(0), Position.BLACK);
+                searches++;
+            }
+        }
+        elapsedMs = (System.nanoTime() - start) / 1_000_000;
+    }
+
+    /** Stops the warm-up search in progress and any that would follow. */
+    public void cancel() {
+        cancelled = true;
+        ai.cancel();
+    }
+
+    /** Whether the warm-up has finished, by its budget or by {@link #cancel}. */
+    public boolean isDone() { return elapsedMs >= 0; }
+
+    @Override
+    public String toString() {
+        return isDone() ? String.format("warm-up: %d searches in %d ms%s", searches, elapsedMs, cancelled ? " (cancelled)" : "")
+                        : "warm-up: running";
+    }
+
+    public static void main(String[] args) {
+        long budget = args.length > 0 ? Long.parseLong(args[0]) : DEFAULT_BUDGET_MS;
+        if (budget > 0) {
+            Warmup w = new Warmup(null, null, budget);
+            w.run();
+            System.out.println(w);
+        }
+        // The position after BLACK's first move, to a fixed depth: cold (budget 0) or warm, the time the JIT costs
+        AIPlayer ai = new AIPlayer();
+        Position pos = Position.initial().play(Position.BLACK, 19);
+        ai.maxDepth = 10;
+        ai.moveTimeMs = 24L * 3600 * 1000;
+        long t = System.nanoTime();
+        ai.getBestMove(pos, Position.WHITE);
+        System.out.printf("depth 10: %,d nodes in %d ms%n", ai.lastNodes, (System.nanoTime() - t) / 1_000_000);
+        // The game's own budget for a reply: how deep the first second gets
+        ai.newGame();
+        ai.maxDepth = 60;
+        ai.moveTimeMs = 1000;
+        t = System.nanoTime();
+        ai.getBestMove(pos, Position.WHITE);
+        System.out.printf("1 s search: depth %d, %,d nodes in %d ms%n", ai.lastDepth, ai.lastNodes, (System.nanoTime() - t) / 1_000_000);
+    }
+}
@@ -0,0 +1,161 @@
+package othello.engine;
+
+import java.util.Arrays;
+
+/**
+ * {@link Bitboard} primitives for an {@code n}×{@code n} board, 4 to 16
+ * squares a side (even). A side is a multi-word bitset: a {@code long[]} of
+ * {@link #words} words with bit {@code r * n + c} set for every disc it
+ * owns, bits past the last square always clear. Results go into arrays
+ * the caller passes in, so nothing allocates per node.
+ * <p>
+ * An instance keeps scratch words for {@link #moves}: one per thread.
+ */
+public final class WideBitboard {
+
+    public static final int MIN_SIZE = 4, MAX_SIZE = 16;
+    /** Row and column steps of the eight directions. */
+    private static final int[] DR = {0, 0, 1, -1, 1, -1, 1, -1}, DC = {1, -1, 0, 0, 1, -1, -1, 1};
+
+    public final int n, squares, words;
+    /** Every square of the board. */
+    private final long[] full;
+    /** Every square except the first and last column, which stops horizontal and diagonal runs wrapping. */
+    private final long[] notEdge;
+    /** Bit shift of each direction; positive moves towards higher squares. */
+    private final int[] shift;
+    private final long[] h, run, step;
+
+    public WideBitboard(int n) {
+        if (n < MIN_SIZE || n > MAX_SIZE || (n & 1) != 0) throw new IllegalArgumentException("board size must be even, 4 to 16: " + n);
+        this.n = n;
+        squares = n * n;
+        words = (squares + 63) >>> 6;
+        full = new long[words];
+        notEdge = new long[words];
+        for (int sq = 0; sq < squares; sq++) {
+            set(full, sq);
+            if (sq % n != 0 && sq % n != n - 1) set(notEdge, sq);
+        }
+        shift = new int[8];
+        for (int d = 0; d < 8; d++) shift[d] = DR[d] * n + DC[d];
+        h = new long[words];
+        run = new long[words];
+        step = new long[words];
+    }
+
+    public int square(int r, int c) { return r * n + c; }
+    public int row(int sq) { return sq / n; }
+    public int col(int sq) { return sq % n; }
+
+    public static boolean get(long[] b, int sq) { return (b[sq >>> 6] & (1L << sq)) != 0; }
+    public static void set(long[] b, int sq) { b[sq >>> 6] |= 1L << sq; }
+
+    public static int count(long[] b) {
+        int c = 0;
+        for (long w : b) c += Long.bitCount(w);
+        return c;
+    }
+
+    public static boolean isEmpty(long[] b) {
+        for (long w : b) if (w != 0) return false;
+        return true;
+    }
+
+    /** Lowest square at or after {@code from} set in {@code b}, or {@code -1}. */
+    public static int next(long[] b, int from) {
+        int i = from >>> 6;
+        if (i >= b.length) return -1;
+        long w = b[i] & (-1L << from);
+        while (w == 0) {
+            if (++i == b.length) return -1;
+            w = b[i];
+        }
+        return (i << 6) + Long.numberOfTrailingZeros(w);
+    }
+
+    /** The initial position: four discs in the centre, {@code black} and {@code white} cleared first. */
+    public void initial(long[] black, long[] white) {
+        Arrays.fill(black, 0);
+        Arrays.fill(white, 0);
+        int m = n / 2;
+        set(white, square(m - 1, m - 1));
+        set(white, square(m, m));
+        set(black, square(m - 1, m));
+        set(black, square(m, m - 1));
+    }
+
+    /**
+     * All squares where {@code p} can play against {@code o}, into
+     * {@code out}. Per direction, runs of opponent discs next to ours grow
+     * one square at a time until they stop; one more step lands on the
+     * squares beyond, of which the empty ones are moves.
+     */
+    public void moves(long[] p, long[] o, long[] out) {
+        for (int i = 0; i < words; i++) {
+            h[i] = o[i] & notEdge[i];
+            out[i] = 0;
+        }
+        for (int d = 0; d < 8; d++) {
+            long[] mask = DC[d] == 0 ? o : h;
+            int s = shift[d];
+            // step is the frontier: the discs the runs gained last
+            shift(p, s, step);
+            boolean any = false;
+            for (int i = 0; i < words; i++) { step[i] &= mask[i]; run[i] = step[i]; any |= step[i] != 0; }
+            while (any) {
+                shift(step, s, step);
+                any = false;
+                for (int i = 0; i < words; i++) { step[i] &= mask[i]; run[i] |= step[i]; any |= step[i] != 0; }
+            }
+            shift(run, s, step);
+            for (int i = 0; i < words; i++) out[i] |= step[i];
+        }
+        for (int i = 0; i < words; i++) out[i] &= full[i] & ~(p[i] | o[i]);
+    }
+
+    /** {@code dst = src} shifted by {@code s} squares, bits past the board dropped; {@code dst} may be {@code src}. */
+    private void shift(long[] src, int s, long[] dst) {
+        if (s > 0) {
+            for (int i = words - 1; i >= 0; i--) {
+                long w = src[i] << s;
+                if (i > 0) w |= src[i - 1] >>> (64 - s);
+                dst[i] = w & full[i];
+            }
+        } else {
+            s = -s;
+            for (int i = 0; i < words; i++) {
+                long w = src[i] >>> s;
+                if (i + 1 < words) w |= src[i + 1] << (64 - s);
+                dst[i] = w;
+            }
+        }
+    }
+
+    /**
+     * Discs of {@code o} flipped when {@code p} plays on {@code sq}, into
+     * {@code out}; returns how many, zero if the move is illegal. Walks the
+     * eight rays from {@code sq}.
+     */
+    public int flips(long[] p, long[] o, int sq, long[] out) {
+        for (int i = 0; i < words; i++) out[i] = 0;
+        int r0 = sq / n, c0 = sq % n, count = 0;
+        for (int d = 0; d < 8; d++) {
+            int r = r0 + DR[d], c = c0 + DC[d], len = 0;
+            while (r >= 0 && r < n && c >= 0 && c < n && get(o, r * n + c)) { r += DR[d]; c += DC[d]; len++; }
+            if (len == 0 || r < 0 || r >= n || c < 0 || c >= n || !get(p, r * n + c)) continue;
+            for (int k = 1; k <= len; k++) set(out, (r0 + k * DR[d]) * n + c0 + k * DC[d]);
+            count += len;
+        }
+        return count;
+    }
+
+    /** Makes a move in place: {@code p} gets {@code sq} and {@code flips}, {@code o} loses them. */
+    public void play(long[] p, long[] o, int sq, long[] flips) {
+        for (int i = 0; i < words; i++) {
+            p[i] |= flips[i];
+            o[i] &= ~flips[i];
+        }
+        set(p, sq);
+    }
+}
@@ -0,0 +1,108 @@
+package othello.engine;
+
+import java.util.Arrays;
+
+/**
+ * {@link Game} for an {@code n}×{@code n} board: the position as two
+ * {@link WideBitboard} bitsets, whose turn it is and the move history,
+ * with forced passes applied automatically. Squares are {@code r * n + c},
+ * so for {@code n = 8} they are the usual ones and {@link #position()}
+ * hands the game to the 64-square engine.
+ * <p>
+ * Not thread-safe; callers that search on another thread should hand the
+ * engine copies from {@link #discs}.
+ */
+public final class WideGame {
+
+    private final WideBitboard bb;
+    private final long[] black, white, moves, flips;
+    private int toMove = Position.BLACK;
+    private int[] history = new int[64];
+    private int plies;
+    private boolean lastPassed;
+
+    public WideGame(int n) {
+        bb = new WideBitboard(n);
+        black = new long[bb.words];
+        white = new long[bb.words];
+        moves = new long[bb.words];
+        flips = new long[bb.words];
+        bb.initial(black, white);
+        updateMoves();
+    }
+
+    public int size() { return bb.n; }
+
+    public int squares() { return bb.squares; }
+
+    /** Player to move; meaningless once {@link #isOver()}. */
+    public int toMove() { return toMove; }
+
+    public int get(int sq) {
+        return WideBitboard.get(black, sq) ? Position.BLACK : WideBitboard.get(white, sq) ? Position.WHITE : Position.EMPTY;
+    }
+
+    /** A copy of {@code player}'s discs. */
+    public long[] discs(int player) { return (player == Position.BLACK ? black : white).clone(); }
+
+    public boolean isValidMove(int sq) { return sq >= 0 && sq < bb.squares && WideBitboard.get(moves, sq); }
+
+    /**
+     * Plays {@code sq} for the player to move and returns the discs it
+     * flipped. If the opponent then has no move the turn comes straight
+     * back, which {@link #opponentPassed()} reports.
+     */
+    public long[] play(int sq) {
+        if (!isValidMove(sq)) throw new IllegalArgumentException("illegal move " + sq + " for " + toMove);
+        long[] me = toMove == Position.BLACK ? black : white, opp = toMove == Position.BLACK ? white : black;
+        bb.flips(me, opp, sq, flips);
+        bb.play(me, opp, sq, flips);
+        record(sq);
+        toMove = 3 - toMove;
+        updateMoves();
+        lastPassed = false;
+        if (WideBitboard.isEmpty(moves)) {
+            toMove = 3 - toMove;
+            updateMoves();
+            if (WideBitboard.isEmpty(moves)) {
+                toMove = 3 - toMove;
+            } else {
+                record(Game.PASS);
+                lastPassed = true;
+            }
+        }
+        return flips.clone();
+    }
+
+    /** Whether the last {@link #play} left the opponent without a move. */
+    public boolean opponentPassed() { return lastPassed; }
+
+    public boolean isOver() { return WideBitboard.isEmpty(moves); }
+
+    public int count(int player) { return WideBitboard.count(player == Position.BLACK ? black : white); }
+
+    /** BLACK, WHITE or EMPTY for a draw; only meaningful once the game is over. */
+    public int winner() {
+        int d = count(Position.BLACK) - count(Position.WHITE);
+        return d > 0 ? Position.BLACK : d < 0 ? Position.WHITE : Position.EMPTY;
+    }
+
+    /** Moves played so far, with {@link Game#PASS} for forced passes. */
+    public int[] history() { return Arrays.copyOf(history, plies); }
+
+    /** The position for the 64-square engine; only for 8×8 games. */
+    public Position position() {
+        if (bb.n != 8) throw new IllegalStateException("not an 8x8 game: " + bb.n + "x" + bb.n);
+        return new Position(black[0], white[0]);
+    }
+
+    private void updateMoves() {
+        if (toMove == Position.BLACK) bb.moves(black, white, moves);
+        else bb.moves(white, black, moves);
+    }
+
+    private void record(int move) {
+        if (plies == history.length) history = Arrays.copyOf(history, plies * 2);
+        history[plies++] = move;
+    }
+}
@@ -0,0 +1,215 @@
+package othello.engine;
+
+import java.util.Arrays;
+
+/**
+ * Alpha-beta player for {@link WideGame} boards of any size: iterative
+ * deepening negamax on {@link WideBitboard} bitsets, moves tried in
+ * square-weight order, leaves scored by {@link Evaluator#weights} plus
+ * mobility. It has no transposition table, book or endgame solver; those
+ * are built around 64-bit boards and stay with {@link AIPlayer}.
+ * <p>
+ * Every ply has its own bitsets, allocated with the player, so a search
+ * allocates nothing. Not thread-safe, except {@link #cancel}.
+ */
+public final class WidePlayer {
+
+    private static final int INF = 1 << 20;
+
+    /** Time per move in milliseconds. */
+    public long moveTimeMs = 1000;
+    /** Upper bound for iterative deepening; the time budget is the real limit. */
+    public int maxDepth = 60;
+
+    /** Results of the last search. */
+    public int lastDepth, lastScore;
+    public long lastNodes;
+
+    private final WideBitboard bb;
+    private final int[] weight;
+    /** Squares by weight, best first: the move order everywhere. */
+    private final int[] order;
+    /** Per ply: side to move, opponent, moves, flips of the move being searched. */
+    private final long[][] me, opp, moves, flips;
+    private final long[] scratch;
+    private final int maxPly;
+
+    private volatile boolean cancelled;
+    private volatile long deadline;
+    private long nodes;
+    private boolean abort, horizon;
+
+    public WidePlayer(int n) {
+        bb = new WideBitboard(n);
+        int[][] w = Evaluator.weights(n);
+        weight = new int[bb.squares];
+        Integer[] sorted = new Integer[bb.squares];
+        for (int sq = 0; sq < bb.squares; sq++) {
+            weight[sq] = w[bb.row(sq)][bb.col(sq)];
+            sorted[sq] = sq;
+        }
+        Arrays.sort(sorted, (a, b) -> weight[b] - weight[a]);
+        order = new int[bb.squares];
+        for (int i = 0; i < bb.squares; i++) order[i] = sorted[i];
+        // A game has at most one move per empty square plus a pass before each
+        maxPly = 2 * bb.squares + 2;
+        me = new long[maxPly][bb.words];
+        opp = new long[maxPly][bb.words];
+        moves = new long[maxPly][bb.words];
+        flips = new long[maxPly][bb.words];
+        scratch = new long[bb.words];
+    }
+
+    public int size() { return bb.n; }
+
+    /** Best move for the side to move in {@code game}, or {@code -1} if the game is over. */
+    public int getBestMove(WideGame game) {
+        if (game.size() != bb.n) throw new IllegalArgumentException("player is for " + bb.n + "x" + bb.n);
+        return getBestMove(game.discs(game.toMove()), game.discs(3 - game.toMove()));
+    }
+
+    /** Best move for the owner of {@code p} against {@code o}, or {@code -1} if it has none. */
+    public int getBestMove(long[] p, long[] o) {
+        long end = System.nanoTime() + moveTimeMs * 1_000_000L;
+        deadline = end;
+        // Checked after the write, so a concurrent cancel() can never be overwritten
+        if (cancelled) deadline = 0;
+        nodes = 0;
+        abort = false;
+        lastDepth = 0;
+        lastScore = 0;
+        lastNodes = 0;
+        System.arraycopy(p, 0, me[0], 0, bb.words);
+        System.arraycopy(o, 0, opp[0], 0, bb.words);
+        bb.moves(me[0], opp[0], moves[0]);
+        int n = WideBitboard.count(moves[0]);
+        if (n == 0) return -1;
+        int[] root = new int[n];
+        for (int i = 0, k = 0; i < order.length; i++) if (WideBitboard.get(moves[0], order[i])) root[k++] = order[i];
+        int best = root[0];
+        if (n == 1) return best;
+
+        for (int depth = 1; depth <= Math.min(maxDepth, maxPly - 2); depth++) {
+            horizon = false;
+            int alpha = -INF, iterBest = -1;
+            for (int i = 0; i < n; i++) {
+                int v = -child(0, root[i], depth, -INF, -alpha);
+                if (abort) break;
+                if (v > alpha) { alpha = v; iterBest = i; }
+            }
+            if (abort) break;
+            best = root[iterBest];
+            lastDepth = depth;
+            lastScore = alpha;
+            // Best first next time
+            System.arraycopy(root, 0, root, 1, iterBest);
+            root[0] = best;
+            if (!horizon || System.nanoTime() >= deadline) break;
+        }
+        lastNodes = nodes;
+        return best;
+    }
+
+    /** Makes {@code sq} at {@code ply} into {@code ply + 1} and searches the reply. */
+    private int child(int ply, int sq, int depth, int alpha, int beta) {
+        bb.flips(me[ply], opp[ply], sq, flips[ply]);
+        long[] cm = me[ply + 1], co = opp[ply + 1], f = flips[ply];
+        for (int i = 0; i < bb.words; i++) {
+            cm[i] = opp[ply][i] & ~f[i];
+            co[i] = me[ply][i] | f[i];
+        }
+        WideBitboard.set(co, sq);
+        return negamax(ply + 1, depth - 1, alpha, beta, false);
+    }
+
+    private int negamax(int ply, int depth, int alpha, int beta, boolean passed) {
+        if ((++nodes & 1023) == 0 && System.nanoTime() >= deadline) abort = true;
+        if (abort) return 0;
+        long[] p = me[ply], o = opp[ply], m = moves[ply];
+        if (depth == 0) {
+            horizon = true;
+            return eval(p, o);
+        }
+        bb.moves(p, o, m);
+        if (WideBitboard.isEmpty(m)) {
+            if (passed) {
+                int diff = WideBitboard.count(p) - WideBitboard.count(o);
+                return diff > 0 ? Evaluator.WIN + diff : diff < 0 ? -Evaluator.WIN + diff : 0;
+            }
+            System.arraycopy(o, 0, me[ply + 1], 0, bb.words);
+            System.arraycopy(p, 0, opp[ply + 1], 0, bb.words);
+            return -negamax(ply + 1, depth - 1, -beta, -alpha, true);
+        }
+        int best = -INF;
+        for (int sq : order) {
+            if (!WideBitboard.get(m, sq)) continue;
+            int v = -child(ply, sq, depth, -beta, -alpha);
+            if (abort) return 0;
+            if (v > best) {
+                best = v;
+                if (v > alpha) alpha = v;
+                if (alpha >= beta) break;
+            }
+        }
+        return best;
+    }
+
+    /** Square weights plus mobility for the side to move, mobility counting less as the board fills. */
+    private int eval(long[] p, long[] o) {
+        int s = 0;
+        for (int sq = WideBitboard.next(p, 0); sq >= 0; sq = WideBitboard.next(p, sq + 1)) s += weight[sq];
+        for (int sq = WideBitboard.next(o, 0); sq >= 0; sq = WideBitboard.next(o, sq + 1)) s -= weight[sq];
+        bb.moves(p, o, scratch);
+        int mobility = WideBitboard.count(scratch);
+        bb.moves(o, p, scratch);
+        mobility -= WideBitboard.count(scratch);
+        int empties = bb.squares - WideBitboard.count(p) - WideBitboard.count(o);
+        // Same 12 -> 4 scale as Evaluator's mobility term, by the fraction of the board still empty
+        return s + mobility * (4 + 8 * empties / bb.squares);
+    }
+
+    /**
+     * Leaf count of the game tree to {@code depth} plies, with the same
+     * conventions as {@link Perft}: a forced pass is a ply, a finished game
+     * one leaf.
+     */
+    public long perft(long[] p, long[] o, int depth) {
+        if (depth > maxPly - 1) throw new IllegalArgumentException("depth " + depth);
+        System.arraycopy(p, 0, me[0], 0, bb.words);
+        System.arraycopy(o, 0, opp[0], 0, bb.words);
+        return perft(0, depth, false);
+    }
+
+    private long perft(int ply, int depth, boolean passed) {
+        if (depth == 0) return 1;
+        long[] p = me[ply], o = opp[ply], m = moves[ply];
+        bb.moves(p, o, m);
+        if (WideBitboard.isEmpty(m)) {
+            if (passed) return 1;
+            System.arraycopy(o, 0, me[ply + 1], 0, bb.words);
+            System.arraycopy(p, 0, opp[ply + 1], 0, bb.words);
+            return perft(ply + 1, depth - 1, true);
+        }
+        if (depth == 1) return WideBitboard.count(m);
+        long n = 0;
+        for (int sq = WideBitboard.next(m, 0); sq >= 0; sq = WideBitboard.next(m, sq + 1)) {
+            bb.flips(p, o, sq, flips[ply]);
+            long[] cm = me[ply + 1], co = opp[ply + 1], f = flips[ply];
+            for (int i = 0; i < bb.words; i++) {
+                cm[i] = o[i] & ~f[i];
+                co[i] = p[i] | f[i];
+            }
+            WideBitboard.set(co, sq);
+            n += perft(ply + 1, depth - 1, false);
+        }
+        return n;
+    }
+
+    /** Makes the running search return as soon as possible, and every later one until {@link #clearCancel}. */
+    public void cancel() {
+        cancelled = true;
+        deadline = 0;
+    }
+
+    public void clearCancel() { cancelled = false; }
+}
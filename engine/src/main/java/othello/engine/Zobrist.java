@@ -0,0 +1,50 @@
+package othello.engine;
+
+import java.util.SplittableRandom;
+
+/**
+ * Zobrist keys for bitboard positions, relative to the side to move: a key
+ * depends only on the mover's and the opponent's discs, so a position gets
+ * the same key whichever colour moves and however deep in a search it
+ * arises. Keys are fixed by a constant seed so hashes are stable across
+ * runs; the search updates them incrementally with {@link #afterMove}
+ * instead of rehashing the board.
+ * <p>
+ * An opponent disc's key is its mover key rotated by 32 bits, so rotating a
+ * whole key by 32 swaps the roles of the two sides: that is a pass, and the
+ * hand-over at the end of every move.
+ */
+public final class Zobrist {
+
+    private static final long[] MOVER_KEYS = new long[64];
+    /** {@code MOVER_KEYS[sq] ^ rotateLeft(MOVER_KEYS[sq], 32)}: toggles one flipped disc. */
+    private static final long[] FLIP_KEYS = new long[64];
+
+    static {
+        SplittableRandom rnd = new SplittableRandom(0x0DE110L);
+        for (int sq = 0; sq < 64; sq++) {
+            MOVER_KEYS[sq] = rnd.nextLong();
+            FLIP_KEYS[sq] = MOVER_KEYS[sq] ^ Long.rotateLeft(MOVER_KEYS[sq], 32);
+        }
+    }
+
+    private Zobrist() {}
+
+    /** Key of the position with {@code me} to move against {@code opp}. */
+    public static long hash(long me, long opp) {
+        long m = 0, o = 0;
+        for (long b = me; b != 0; b &= b - 1) m ^= MOVER_KEYS[Long.numberOfTrailingZeros(b)];
+        for (long b = opp; b != 0; b &= b - 1) o ^= MOVER_KEYS[Long.numberOfTrailingZeros(b)];
+        return m ^ Long.rotateLeft(o, 32);
+    }
+
+    /** Key after the side to move drops a disc on {@code sq} and turns {@code flips}; also hands the move over. */
+    public static long afterMove(long key, int sq, long flips) {
+        key ^= MOVER_KEYS[sq];
+        for (; flips != 0; flips &= flips - 1) key ^= FLIP_KEYS[Long.numberOfTrailingZeros(flips)];
+        return afterPass(key);
+    }
+
+    /** Key after a pass. */
+    public static long afterPass(long key) { return Long.rotateLeft(key, 32); }
+}
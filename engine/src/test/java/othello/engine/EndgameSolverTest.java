@@ -0,0 +1,121 @@
+package othello.engine;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.SplittableRandom;
+
+import org.junit.jupiter.api.Test;
+
+class EndgameSolverTest {
+
+    /** Board, side to move and exact score for the side to move, checked against {@link #reference}. */
+    private static final String[][] SUITE = {
+        {"XXXXXX--XXOOXXX-XOOXX---XOXXXXX-XOXXXOOO-XOOXOOOX-OOOOOO--XXX-OO", "X", "0"},
+        {"X--XXXXXOOO-XOOOOOOXXXOXOOOOXOXXXXOXOXXX--X-OXXX-XO-XX-X--OXXO--", "O", "+10"},
+        {"O--XXX--XOXXO-O-XXOOOOO-XOOXOO-X-OOXOOOX-OOOXOOX-OXXOXXX-OOO-X-X", "X", "0"},
+        {"-O-OOO-O--OXXXXX-OXXXXX-OOXXOOOX-OXOXXOOOOXOXXX-OOXXO-X--O-X-O-X", "O", "-18"},
+        {"O-O-XXX-XO-OXXO-OXOXO--O-OXOOOOO--XOOXOX--XXOOX--OXXXOOO--OOOOOO", "X", "-26"},
+        {"-OO-XXX-OXXXOX-XOXXXXOOXOXOXXXOXOOOOOOXXOX-OOOOO---O-OO-------OO", "X", "-6"},
+        {"-X-OOO-XOOOOOXX--OOO-X--XOOOXXX-XOOOOXX-XOOOXXXX-OOO-XXXXOOO-X-O", "X", "+26"},
+        {"--OOOOO----OOOOX---OOOOXXXOOOOOXXXOOOOOOXXXXOXOOXXXO-OOOXX--OOOO", "X", "+32"},
+    };
+
+    @Test
+    void solvesFixedSuite() {
+        EndgameSolver solver = new EndgameSolver(16);
+        for (String[] t : SUITE) {
+            Position pos = Position.parse(t[0]);
+            int player = t[1].equals("X") ? Position.BLACK : Position.WHITE;
+            int expected = Integer.parseInt(t[2].replace("+", ""));
+            long p = pos.discs(player), o = pos.discs(3 - player);
+            solver.newGame();
+            int move = solver.solve(p, o, true, Long.MAX_VALUE);
+            assertFalse(solver.aborted);
+            assertEquals(expected, solver.score, t[0]);
+            assertBestMove(p, o, move, expected);
+            solver.solve(p, o, false, Long.MAX_VALUE);
+            assertEquals(Integer.signum(expected), solver.score, t[0] + " wld");
+        }
+    }
+
+    @Test
+    void matchesBruteForceOnRandomPositions() {
+        SplittableRandom rnd = new SplittableRandom(6);
+        // One solver for every position: table entries from earlier solves must not leak into later ones
+        EndgameSolver solver = new EndgameSolver(16);
+        for (int empties = 1; empties <= 11; empties++) {
+            for (int i = 0; i < 14; i++) {
+                long[] po = randomPosition(rnd, empties);
+                long p = po[0], o = po[1];
+                int expected = reference(p, o, -65, 65);
+                String where = new Position(p, o) + " (" + empties + " empties)";
+
+                int move = solver.solve(p, o, true, Long.MAX_VALUE);
+                assertEquals(expected, solver.score, where);
+                assertBestMove(p, o, move, expected);
+
+                solver.solve(p, o, false, Long.MAX_VALUE);
+                assertEquals(Integer.signum(expected), solver.score, where + " wld");
+            }
+        }
+    }
+
+    /** {@code move} must be legal and reach {@code score}, or be {@code -1} when the side to move has to pass. */
+    private static void assertBestMove(long p, long o, int move, int score) {
+        long moves = Bitboard.moves(p, o);
+        if (moves == 0) {
+            assertEquals(-1, move);
+            return;
+        }
+        assertTrue(move >= 0 && (moves & (1L << move)) != 0, "illegal move " + move);
+        long f = Bitboard.flips(p, o, move);
+        assertEquals(score, -reference(o & ~f, p | f | (1L << move), -65, 65), "move " + Bitboard.name(move));
+    }
+
+    /** Plain alpha-beta over the whole tree: no table, no ordering, nothing shared with the solver. */
+    private static int reference(long p, long o, int alpha, int beta) {
+        long moves = Bitboard.moves(p, o);
+        if (moves == 0) {
+            if (Bitboard.moves(o, p) == 0) return EndgameSolver.finalScore(p, o, 64 - Long.bitCount(p | o));
+            return -reference(o, p, -beta, -alpha);
+        }
+        int best = -65;
+        for (; moves != 0; moves &= moves - 1) {
+            int sq = Long.numberOfTrailingZeros(moves);
+            long f = Bitboard.flips(p, o, sq);
+            int v = -reference(o & ~f, p | f | (1L << sq), -beta, -alpha);
+            if (v > best) best = v;
+            if (v > alpha) alpha = v;
+            if (alpha >= beta) break;
+        }
+        return best;
+    }
+
+    /** Random legal play from the start until {@code empties} remain, with the side to move first; retried if the game ends early. */
+    static long[] randomPosition(SplittableRandom rnd, int empties) {
+        while (true) {
+            long p = Position.initial().black, o = Position.initial().white;
+            boolean passed = false;
+            while (64 - Long.bitCount(p | o) > empties) {
+                long moves = Bitboard.moves(p, o);
+                if (moves == 0) {
+                    if (passed) break;
+                    passed = true;
+                } else {
+                    passed = false;
+                    for (int k = rnd.nextInt(Long.bitCount(moves)); k > 0; k--) moves &= moves - 1;
+                    int sq = Long.numberOfTrailingZeros(moves);
+                    long f = Bitboard.flips(p, o, sq);
+                    long t = p | f | (1L << sq);
+                    p = o & ~f;
+                    o = t;
+                    continue;
+                }
+                long t = p; p = o; o = t;
+            }
+            if (64 - Long.bitCount(p | o) == empties) return new long[] {p, o};
+        }
+    }
+}
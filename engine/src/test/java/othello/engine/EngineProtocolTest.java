@@ -0,0 +1,43 @@
+package othello.engine;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+
+import org.junit.jupiter.api.Test;
+
+class EngineProtocolTest {
+
+    private static String[] session(EngineProtocol.Engines engines, String commands) throws IOException {
+        StringWriter out = new StringWriter();
+        new EngineProtocol(engines, new BufferedReader(new StringReader(commands)), out).run();
+        return out.toString().split("\n\n");
+    }
+
+    @Test
+    void playsAndReportsMoves() throws IOException {
+        try (EngineProtocol.Engines e = new EngineProtocol.Engines(1, 1, 16)) {
+            String[] r = session(e, "set depth 2\nplay f5\ngenmove\nplay a1\nquit\n");
+            assertEquals("=", r[0]);
+            assertEquals("=", r[1]);
+            assertTrue(r[2].matches("= [a-h][1-8] -?\\d+"), r[2]);
+            assertEquals("? illegal move a1", r[3]);
+            assertEquals("=", r[4]);
+        }
+    }
+
+    @Test
+    void failedSearchEndsOnlyThatCommand() throws IOException {
+        // A table too small to create makes every search fail on the engine thread
+        try (EngineProtocol.Engines e = new EngineProtocol.Engines(1, 1, 2)) {
+            String[] r = session(e, "genmove\nname\nquit\n");
+            assertTrue(r[0].startsWith("? search failed"), r[0]);
+            assertEquals("= othello", r[1]);
+            assertEquals("=", r[2]);
+        }
+    }
+}
@@ -0,0 +1,28 @@
+package othello.engine;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import org.junit.jupiter.api.Test;
+
+class PerftTest {
+
+    @Test
+    void matchesKnownCountsFromStart() {
+        Position start = Position.initial();
+        for (int depth = 1; depth <= 10; depth++)
+            assertEquals(Perft.KNOWN[depth], Perft.perft(start.black, start.white, depth), "perft(" + depth + ")");
+    }
+
+    @Test
+    void countsPassAsPlyAndFinishedGameAsOneLeaf() {
+        // X to move has no move, O has one: the pass is a ply of its own
+        Position pos = Position.parse("OX" + "-".repeat(62));
+        assertEquals(0, Long.bitCount(pos.moves(Position.BLACK)));
+        assertEquals(1, Long.bitCount(pos.moves(Position.WHITE)));
+        assertEquals(1, Perft.perft(pos.black, pos.white, 1));
+        assertEquals(1, Perft.perft(pos.black, pos.white, 2));
+        // Nobody can move: one leaf at any depth
+        Position over = Position.parse("XX" + "-".repeat(62));
+        assertEquals(1, Perft.perft(over.black, over.white, 5));
+    }
+}
@@ -0,0 +1,74 @@
+package othello.engine;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.SplittableRandom;
+
+import org.junit.jupiter.api.Test;
+
+class SymmetryTest {
+
+    @Test
+    void invertUndoesApply() {
+        SplittableRandom rnd = new SplittableRandom(8);
+        for (int i = 0; i < 1000; i++) {
+            long x = rnd.nextLong();
+            for (int s = 0; s < Symmetry.COUNT; s++) {
+                assertEquals(x, Symmetry.invert(s, Symmetry.apply(s, x)), "symmetry " + s);
+                assertEquals(x, Symmetry.apply(s, Symmetry.invert(s, x)), "symmetry " + s);
+            }
+        }
+        for (int sq = 0; sq < 64; sq++)
+            for (int s = 0; s < Symmetry.COUNT; s++)
+                assertEquals(sq, Symmetry.invertSquare(s, Symmetry.applySquare(s, sq)));
+    }
+
+    @Test
+    void symmetriesAreDistinct() {
+        // a1, b1, c1 and a2 are enough to tell all eight apart
+        long x = 1L | 1L << 1 | 1L << 2 | 1L << 8;
+        Set<Long> images = new HashSet<>();
+        for (int s = 0; s < Symmetry.COUNT; s++) images.add(Symmetry.apply(s, x));
+        assertEquals(Symmetry.COUNT, images.size());
+    }
+
+    @Test
+    void moveGenerationCommutesWithEverySymmetry() {
+        SplittableRandom rnd = new SplittableRandom(8);
+        for (int empties = 4; empties <= 56; empties += 4) {
+            for (int i = 0; i < 20; i++) {
+                long[] po = EndgameSolverTest.randomPosition(rnd, empties);
+                long p = po[0], o = po[1];
+                long moves = Bitboard.moves(p, o);
+                for (int s = 0; s < Symmetry.COUNT; s++) {
+                    long sp = Symmetry.apply(s, p), so = Symmetry.apply(s, o);
+                    assertEquals(Symmetry.apply(s, moves), Bitboard.moves(sp, so), "moves, symmetry " + s);
+                    for (long m = moves; m != 0; m &= m - 1) {
+                        int sq = Long.numberOfTrailingZeros(m);
+                        assertEquals(Symmetry.apply(s, Bitboard.flips(p, o, sq)),
+                                     Bitboard.flips(sp, so, Symmetry.applySquare(s, sq)), "flips, symmetry " + s);
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    void canonicalFormIsSharedByAllImages() {
+        SplittableRandom rnd = new SplittableRandom(8);
+        for (int i = 0; i < 200; i++) {
+            long[] po = EndgameSolverTest.randomPosition(rnd, 10 + rnd.nextInt(50));
+            long p = po[0], o = po[1];
+            int c = Symmetry.canonical(p, o);
+            long cp = Symmetry.apply(c, p), co = Symmetry.apply(c, o);
+            for (int s = 0; s < Symmetry.COUNT; s++) {
+                long sp = Symmetry.apply(s, p), so = Symmetry.apply(s, o);
+                int cs = Symmetry.canonical(sp, so);
+                assertEquals(cp, Symmetry.apply(cs, sp));
+                assertEquals(co, Symmetry.apply(cs, so));
+            }
+        }
+    }
+}